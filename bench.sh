@@ -0,0 +1,12 @@
+#!/bin/sh
+# Builds the project and runs a benchmark with no display
+# Usage: ./bench.sh [EngineBenchmark|ParallelSearchBenchmark|EndgameTimingCheck] [benchmark arguments]
+set -e
+cd "$(dirname "$0")"
+
+./build.sh
+
+BENCHMARK=${1:-EngineBenchmark}
+[ $# -gt 0 ] && shift
+exec java -Djava.awt.headless=true -cp out/reversi-engine.jar:out/reversi-ui.jar:out/reversi-bench.jar \
+		"game.reversi.bench.$BENCHMARK" "$@"
@@ -0,0 +1,115 @@
+package game.reversi.bench;
+
+import game.reversi.engine.Bitboard;
+import game.reversi.engine.BoardState;
+import game.reversi.engine.RandomPlayer;
+import game.reversi.engine.Search;
+
+/**
+ * A fixed corpus of positions from each phase of the game
+ * <p>
+ * The positions come from random games with fixed seeds, so every run of a
+ * benchmark sees exactly the same boards
+ */
+public class BenchmarkPositions
+{
+	/**
+	 * The phases of the game, by number of discs on the board
+	 */
+	public enum Phase
+	{
+		OPENING(8, 16),
+		MIDGAME(24, 40),
+		ENDGAME(48, 58);
+
+		/**
+		 * Range of discs on the board for positions of this phase
+		 */
+		private final int minDiscs;
+		private final int maxDiscs;
+
+		Phase(int minDiscs, int maxDiscs)
+		{
+			this.minDiscs = minDiscs;
+			this.maxDiscs = maxDiscs;
+		}
+	}
+
+	/**
+	 * Number of positions in each phase
+	 */
+	public static final int SIZE = 64;
+
+	/**
+	 * The discs of the side to move and of the side waiting
+	 */
+	public final long[] players = new long[SIZE];
+	public final long[] opponents = new long[SIZE];
+
+	/**
+	 * The same positions as boards, with the colour to move
+	 */
+	public final BoardState[] boards = new BoardState[SIZE];
+	public final byte[] colors = new byte[SIZE];
+
+	/**
+	 * Builds the corpus for one phase
+	 *
+	 * @param phase The phase of the game
+	 */
+	public BenchmarkPositions(Phase phase)
+	{
+		int found = 0;
+		for (long seed = 1; found < SIZE; seed++)
+		{
+			found = collect(phase, seed, found);
+		}
+	}
+
+	/**
+	 * Plays one random game, keeping the first position in the phase which has a move
+	 *
+	 * @param phase The phase of the game
+	 * @param seed  The seed for the game
+	 * @param found How many positions have been kept so far
+	 *
+	 * @return How many positions have been kept after this game
+	 */
+	private int collect(Phase phase, long seed, int found)
+	{
+		RandomPlayer random = new RandomPlayer(seed);
+		long toMove = Bitboard.START_BLACK;
+		long waiting = Bitboard.START_WHITE;
+		boolean blackToMove = true;
+
+		/** Stop at a random number of discs in the phase's range */
+		int targetDiscs = phase.minDiscs + (int) (seed % (phase.maxDiscs - phase.minDiscs + 1));
+
+		while (Long.bitCount(toMove | waiting) < targetDiscs || Bitboard.legalMoves(toMove, waiting) == 0)
+		{
+			int square = random.chooseMove(toMove, waiting);
+			if (square == Search.NO_MOVE && Bitboard.legalMoves(waiting, toMove) == 0)
+			{
+				/** Game ended before reaching the phase */
+				return found;
+			}
+			if (square != Search.NO_MOVE)
+			{
+				long flips = Bitboard.flips(toMove, waiting, square);
+				toMove |= flips | (1L << square);
+				waiting ^= flips;
+			}
+
+			long swap = toMove;
+			toMove = waiting;
+			waiting = swap;
+			blackToMove = !blackToMove;
+		}
+
+		players[found] = toMove;
+		opponents[found] = waiting;
+		colors[found] = blackToMove ? BoardState.BLACK : BoardState.WHITE;
+		boards[found] = blackToMove ? new BoardState(toMove, waiting) : new BoardState(waiting, toMove);
+		return found + 1;
+	}
+}
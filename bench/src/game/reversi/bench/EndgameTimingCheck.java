@@ -0,0 +1,145 @@
+package game.reversi.bench;
+
+import game.reversi.engine.Bitboard;
+import game.reversi.engine.ParallelSearch;
+import game.reversi.engine.RandomPlayer;
+import game.reversi.engine.Search;
+import game.reversi.engine.TranspositionTable;
+
+/**
+ * Checks that timed searches only hand over to the endgame solver when it
+ * can finish
+ * <p>
+ * Searches positions from random games with the same time budget as the
+ * game's AI. At 20 empty squares a solve cannot finish in half of that, so a
+ * search must not spend time on one that fails. At 12 empty squares it easily
+ * can, so every search must be solved exactly. Exits with 1 if either fails
+ * <p>
+ * Usage: EndgameTimingCheck [positions] [budget ms]
+ */
+public class EndgameTimingCheck
+{
+	/**
+	 * A solve which gave up may have taken at most this part of the budget
+	 */
+	private static final int WASTE_DIVISOR = 10;
+
+	public static void main(String[] args)
+	{
+		int positions = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+		long budgetMs = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+
+		Search search = new Search(new TranspositionTable());
+		ParallelSearch parallel = new ParallelSearch(2, new TranspositionTable());
+
+		int failures = 0;
+		failures += check(search, null, positions, 20, budgetMs, false);
+		failures += check(null, parallel, positions, 20, budgetMs, false);
+		failures += check(search, null, positions, 12, budgetMs, true);
+		failures += check(null, parallel, positions, 12, budgetMs, true);
+		parallel.shutdown();
+
+		System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+		if (failures > 0)
+		{
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Searches positions with a number of empty squares and checks each one
+	 *
+	 * @param search      The single threaded search, or null to use parallel
+	 * @param parallel    The parallel search, used if search is null
+	 * @param positions   The number of positions
+	 * @param empties     The number of empty squares in each
+	 * @param budgetMs    The time budget of each search
+	 * @param mustSolve   If every search has to be solved exactly, rather than
+	 *                    just not wasting time on a failed solve
+	 *
+	 * @return The number of positions which failed
+	 */
+	private static int check(Search search, ParallelSearch parallel, int positions, int empties, long budgetMs,
+	                         boolean mustSolve)
+	{
+		String name = search != null ? "Search" : "ParallelSearch";
+		int failures = 0;
+		long seed = 1;
+		for (int i = 0; i < positions; i++)
+		{
+			long[] position = randomPosition(empties, seed);
+			seed = position[2] + 1;
+
+			long start = System.nanoTime();
+			int depth;
+			long solveNanos;
+			if (search != null)
+			{
+				search.findBestMove(position[0], position[1], budgetMs);
+				depth = search.getCompletedDepth();
+				solveNanos = search.getSolveNanos();
+			} else
+			{
+				parallel.findBestMove(position[0], position[1], budgetMs);
+				depth = parallel.getCompletedDepth();
+				solveNanos = parallel.getSolveNanos();
+			}
+			double elapsedMs = (System.nanoTime() - start) / 1e6;
+
+			boolean solved = depth == empties && solveNanos > 0;
+			boolean wasted = !solved && solveNanos > budgetMs * 1000000L / WASTE_DIVISOR;
+			boolean ok = mustSolve ? solved : !wasted;
+			if (!ok)
+			{
+				failures++;
+			}
+			System.out.printf("%-14s %2d empties, seed %4d: %7.1fms, solve %7.1fms, depth %2d, %s  %s%n",
+					name, empties, position[2], elapsedMs, solveNanos / 1e6, depth,
+					solved ? "solved" : "not solved", ok ? "ok" : "FAIL");
+		}
+		return failures;
+	}
+
+	/**
+	 * Plays random games until one reaches a number of empty squares with a
+	 * move for the side to move
+	 *
+	 * @param empties The number of empty squares
+	 * @param seed    The seed of the first game to try
+	 *
+	 * @return The discs of the side to move, of the side waiting, and the seed used
+	 */
+	private static long[] randomPosition(int empties, long seed)
+	{
+		for (; ; seed++)
+		{
+			RandomPlayer random = new RandomPlayer(seed);
+			long toMove = Bitboard.START_BLACK;
+			long waiting = Bitboard.START_WHITE;
+
+			while (Long.bitCount(~(toMove | waiting)) > empties)
+			{
+				int square = random.chooseMove(toMove, waiting);
+				if (square == Search.NO_MOVE && Bitboard.legalMoves(waiting, toMove) == 0)
+				{
+					break;
+				}
+				if (square != Search.NO_MOVE)
+				{
+					long flips = Bitboard.flips(toMove, waiting, square);
+					toMove |= flips | (1L << square);
+					waiting ^= flips;
+				}
+
+				long swap = toMove;
+				toMove = waiting;
+				waiting = swap;
+			}
+
+			if (Long.bitCount(~(toMove | waiting)) == empties && Bitboard.legalMoves(toMove, waiting) != 0)
+			{
+				return new long[]{toMove, waiting, seed};
+			}
+		}
+	}
+}
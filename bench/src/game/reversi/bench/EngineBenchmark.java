@@ -0,0 +1,185 @@
+package game.reversi.bench;
+
+import game.reversi.AI;
+import game.reversi.Game;
+import game.reversi.engine.Bitboard;
+import game.reversi.engine.BoardState;
+import game.reversi.engine.Search;
+import game.reversi.engine.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks move generation, flipping, counting and search over opening,
+ * midgame and endgame positions
+ * <p>
+ * Prints operations per second and bytes allocated per operation for each
+ * benchmark and phase. Runs headless, see bench.sh
+ * <p>
+ * Usage: EngineBenchmark [name filter] [--warmups n] [--iterations n] [--time ms]
+ */
+public class EngineBenchmark
+{
+	public static void main(String[] args)
+	{
+		String filter = "";
+		int warmUps = 3;
+		int iterations = 5;
+		long iterationMs = 1000;
+		for (int i = 0; i < args.length; i++)
+		{
+			switch (args[i])
+			{
+				case "--warmups":
+					warmUps = Integer.parseInt(args[++i]);
+					break;
+				case "--iterations":
+					iterations = Integer.parseInt(args[++i]);
+					break;
+				case "--time":
+					iterationMs = Long.parseLong(args[++i]);
+					break;
+				default:
+					filter = args[i];
+			}
+		}
+
+		System.out.printf("%-28s %-8s %6s %16s %14s %12s%n",
+				"Benchmark", "Phase", "Cnt", "Score (ops/s)", "Error", "Alloc (B/op)");
+		for (BenchmarkPositions.Phase phase : BenchmarkPositions.Phase.values())
+		{
+			for (MicroBenchmark benchmark : createBenchmarks(new BenchmarkPositions(phase)))
+			{
+				if (!benchmark.getName().contains(filter))
+				{
+					continue;
+				}
+				MicroBenchmark.Result result = benchmark.run(warmUps, iterations, iterationMs);
+				System.out.printf("%-28s %-8s %6d %16.1f %14.1f %12.2f%n",
+						result.name, phase, iterations, result.mean, result.error, result.bytesPerOp);
+			}
+		}
+		System.out.println("(sink " + MicroBenchmark.getSink() + ")");
+	}
+
+	/**
+	 * Creates every benchmark over one corpus of positions
+	 *
+	 * @param positions The positions to run on
+	 *
+	 * @return The benchmarks
+	 */
+	static List<MicroBenchmark> createBenchmarks(final BenchmarkPositions positions)
+	{
+		final Game game = new Game(new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS), 1);
+		final AI ai = new AI(game, null, 1, null, null);
+		final BoardState scratch = new BoardState();
+		final int size = BenchmarkPositions.SIZE;
+
+		List<MicroBenchmark> benchmarks = new ArrayList<>();
+
+		/** The Swing game's rule checks, now running on BoardState */
+		benchmarks.add(new MicroBenchmark("AI.checkArea")
+		{
+			@Override
+			protected long operation(int index)
+			{
+				int position = index % size;
+				int square = (index / size) & 63;
+				return ai.checkArea(Bitboard.row(square), Bitboard.col(square),
+						BoardState.opponent(positions.colors[position]), positions.boards[position], true);
+			}
+		});
+		benchmarks.add(new MicroBenchmark("AI.checkDirection")
+		{
+			@Override
+			protected long operation(int index)
+			{
+				int position = index % size;
+				int square = (index / size) & 63;
+				int direction = (index / (size * 64)) % 9;
+				return ai.checkDirection(Bitboard.row(square), Bitboard.col(square),
+						BoardState.opponent(positions.colors[position]), positions.boards[position],
+						direction / 3 - 1, direction % 3 - 1, true);
+			}
+		});
+		benchmarks.add(new MicroBenchmark("AI.checkBoard")
+		{
+			@Override
+			protected long operation(int index)
+			{
+				int position = index % size;
+				return ai.checkBoard(BoardState.opponent(positions.colors[position]), positions.boards[position]) ? 1 : 0;
+			}
+		});
+		benchmarks.add(new MicroBenchmark("AI.makeGreedyMove")
+		{
+			@Override
+			protected long operation(int index)
+			{
+				int position = index % size;
+				scratch.copyFrom(positions.boards[position]);
+				ai.makeGreedyMove(BoardState.opponent(positions.colors[position]), scratch);
+				return scratch.getBlack();
+			}
+		});
+		benchmarks.add(new MicroBenchmark("Game.countWhite")
+		{
+			@Override
+			protected long operation(int index)
+			{
+				return game.countWhite(positions.boards[index % size]);
+			}
+		});
+		benchmarks.add(new MicroBenchmark("Game.countBlack")
+		{
+			@Override
+			protected long operation(int index)
+			{
+				return game.countBlack(positions.boards[index % size]);
+			}
+		});
+
+		/** The engine underneath */
+		benchmarks.add(new MicroBenchmark("Bitboard.legalMoves")
+		{
+			@Override
+			protected long operation(int index)
+			{
+				int position = index % size;
+				return Bitboard.legalMoves(positions.players[position], positions.opponents[position]);
+			}
+		});
+		benchmarks.add(new MicroBenchmark("Bitboard.flips")
+		{
+			@Override
+			protected long operation(int index)
+			{
+				int position = index % size;
+				long player = positions.players[position];
+				long opponent = positions.opponents[position];
+				return Bitboard.flips(player, opponent,
+						Long.numberOfTrailingZeros(Bitboard.legalMoves(player, opponent)));
+			}
+		});
+		benchmarks.add(new MicroBenchmark("Search.depth4")
+		{
+			/**
+			 * No table, as the corpus is small enough that a table kept between
+			 * calls answers every search after the first from memory
+			 */
+			private final Search search = new Search();
+
+			@Override
+			protected long operation(int index)
+			{
+				int position = index % size;
+				return search.findBestMove(positions.players[position], positions.opponents[position],
+						Search.NO_TIME_LIMIT, 4);
+			}
+		});
+
+		return benchmarks;
+	}
+}
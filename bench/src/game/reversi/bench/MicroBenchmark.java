@@ -0,0 +1,164 @@
+package game.reversi.bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * A small benchmark harness in the style of JMH
+ * <p>
+ * Each benchmark runs warm-up iterations and then measured iterations of a fixed
+ * length, calling the operation in batches. Results go into a sink so the JIT
+ * cannot remove the work, and the bytes allocated by the benchmark thread are
+ * read from the JVM to give an allocation rate
+ */
+public abstract class MicroBenchmark
+{
+	/**
+	 * Operations run between checks of the clock
+	 */
+	private static final int BATCH = 256;
+
+	/**
+	 * Collects results so they are never dead code
+	 */
+	private static long sink;
+
+	/**
+	 * The name printed in the results
+	 */
+	private final String name;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name The name printed in the results
+	 */
+	protected MicroBenchmark(String name)
+	{
+		this.name = name;
+	}
+
+	/**
+	 * Runs the operation being measured once
+	 *
+	 * @param index A counter, to pick which input to use
+	 *
+	 * @return Any result of the operation, to be sunk
+	 */
+	protected abstract long operation(int index);
+
+	/**
+	 * Gets the name printed in the results
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Warms up and measures the benchmark
+	 *
+	 * @param warmUps      The number of warm-up iterations
+	 * @param iterations   The number of measured iterations
+	 * @param iterationMs  The length of each iteration, in milliseconds
+	 *
+	 * @return The results
+	 */
+	public Result run(int warmUps, int iterations, long iterationMs)
+	{
+		for (int i = 0; i < warmUps; i++)
+		{
+			iteration(iterationMs);
+		}
+
+		double[] scores = new double[iterations];
+		long operations = 0;
+		long allocated = allocatedBytes();
+		for (int i = 0; i < iterations; i++)
+		{
+			long start = System.nanoTime();
+			long done = iteration(iterationMs);
+			scores[i] = done / ((System.nanoTime() - start) / 1e9);
+			operations += done;
+		}
+		allocated = allocatedBytes() - allocated;
+
+		return new Result(name, scores, allocated < 0 ? Double.NaN : (double) allocated / operations);
+	}
+
+	/**
+	 * Runs the operation for a fixed time
+	 *
+	 * @param iterationMs The length of the iteration, in milliseconds
+	 *
+	 * @return The number of operations run
+	 */
+	private long iteration(long iterationMs)
+	{
+		long end = System.nanoTime() + iterationMs * 1000000L;
+		long result = 0;
+		int index = 0;
+		do
+		{
+			for (int i = 0; i < BATCH; i++)
+			{
+				result += operation(index++);
+			}
+		} while (System.nanoTime() < end);
+
+		sink ^= result;
+		return index;
+	}
+
+	/**
+	 * Gets the bytes this thread has allocated, or -1 if the JVM cannot tell
+	 */
+	private static long allocatedBytes()
+	{
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean)
+		{
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the sink, so its value is used
+	 */
+	public static long getSink()
+	{
+		return sink;
+	}
+
+	/**
+	 * Results of one benchmark
+	 */
+	public static class Result
+	{
+		public final String name;
+		public final double mean;
+		public final double error;
+		public final double bytesPerOp;
+
+		Result(String name, double[] scores, double bytesPerOp)
+		{
+			double total = 0;
+			for (double score : scores)
+			{
+				total += score;
+			}
+			double mean = total / scores.length;
+
+			double squares = 0;
+			for (double score : scores)
+			{
+				squares += (score - mean) * (score - mean);
+			}
+
+			this.name = name;
+			this.mean = mean;
+			this.error = scores.length > 1 ? Math.sqrt(squares / (scores.length - 1)) : 0;
+			this.bytesPerOp = bytesPerOp;
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package game.reversi.bench;
+
+import game.reversi.engine.Bitboard;
+import game.reversi.engine.ParallelSearch;
+import game.reversi.engine.Search;
+import game.reversi.engine.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures how parallel search scales with the number of threads
+ * <p>
+ * Searches a set of positions to a fixed depth with 1, 2, 4 ... threads, up to
+ * the number of cores. Every thread count is warmed up before anything is
+ * measured, then the runs take turns between thread counts so none is favoured
+ * by when it ran. Prints the mean and spread of the time to reach the depth and
+ * of nodes per second, and checks that every thread count picks the same move
+ * and score. The speedup is by time to depth, as more threads search more nodes
+ * <p>
+ * Usage: ParallelSearchBenchmark [depth] [max threads] [repeats]
+ */
+public class ParallelSearchBenchmark
+{
+	/**
+	 * Runs of every thread count before any are measured
+	 */
+	private static final int WARM_UPS = 3;
+
+	public static void main(String[] args)
+	{
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		long[][] positions = {
+				playOpening(0),
+				playOpening(12),
+				playOpening(24)
+		};
+
+		List<Integer> threadCounts = new ArrayList<>();
+		for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads))
+		{
+			threadCounts.add(threads);
+			if (threads == maxThreads)
+			{
+				break;
+			}
+		}
+
+		System.out.printf("%d available processors, depth %d, %d positions, %d runs per thread count%n",
+				Runtime.getRuntime().availableProcessors(), depth, positions.length, repeats);
+
+		ParallelSearch[] searches = new ParallelSearch[threadCounts.size()];
+		TranspositionTable[] tables = new TranspositionTable[threadCounts.size()];
+		for (int i = 0; i < searches.length; i++)
+		{
+			tables[i] = new TranspositionTable(64, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+			searches[i] = new ParallelSearch(threadCounts.get(i), tables[i]);
+		}
+
+		int[] expectedMoves = new int[positions.length];
+		int[] expectedScores = new int[positions.length];
+		boolean[] same = new boolean[searches.length];
+		Arrays.fill(same, true);
+		double[][] seconds = new double[searches.length][repeats];
+		double[][] nodesPerSecond = new double[searches.length][repeats];
+
+		for (int run = -WARM_UPS; run < repeats; run++)
+		{
+			for (int i = 0; i < searches.length; i++)
+			{
+				/** Start every run from an empty table, or repeats would be answered from it */
+				tables[i].clear();
+				long nodes = 0;
+				long start = System.nanoTime();
+				for (int p = 0; p < positions.length; p++)
+				{
+					int move = searches[i].findBestMove(positions[p][0], positions[p][1], Search.NO_TIME_LIMIT, depth);
+					nodes += searches[i].getNodes();
+
+					if (run == -WARM_UPS && i == 0)
+					{
+						expectedMoves[p] = move;
+						expectedScores[p] = searches[i].getBestScore();
+					} else if (expectedMoves[p] != move || expectedScores[p] != searches[i].getBestScore())
+					{
+						same[i] = false;
+					}
+				}
+				double elapsed = (System.nanoTime() - start) / 1e9;
+
+				if (run >= 0)
+				{
+					seconds[i][run] = elapsed;
+					nodesPerSecond[i][run] = nodes / elapsed;
+				}
+			}
+		}
+
+		double baseSeconds = mean(seconds[0]);
+		for (int i = 0; i < searches.length; i++)
+		{
+			System.out.printf("threads %2d: time to depth %8.3fs +- %6.3f, %,13.0f +- %,11.0f nodes/s, "
+					                  + "speedup %5.2f, same result: %s%n",
+					threadCounts.get(i), mean(seconds[i]), deviation(seconds[i]),
+					mean(nodesPerSecond[i]), deviation(nodesPerSecond[i]),
+					baseSeconds / mean(seconds[i]), same[i]);
+			searches[i].shutdown();
+		}
+	}
+
+	/**
+	 * Gets the mean of some measurements
+	 */
+	private static double mean(double[] values)
+	{
+		double sum = 0;
+		for (double value : values)
+		{
+			sum += value;
+		}
+		return sum / values.length;
+	}
+
+	/**
+	 * Gets the standard deviation of some measurements
+	 */
+	private static double deviation(double[] values)
+	{
+		if (values.length < 2)
+		{
+			return 0;
+		}
+		double mean = mean(values);
+		double sum = 0;
+		for (double value : values)
+		{
+			sum += (value - mean) * (value - mean);
+		}
+		return Math.sqrt(sum / (values.length - 1));
+	}
+
+	/**
+	 * Plays a fixed opening line by always taking the first legal move
+	 *
+	 * @param plies The number of moves to play
+	 *
+	 * @return The player to move's discs and the opponent's discs
+	 */
+	private static long[] playOpening(int plies)
+	{
+		long player = Bitboard.START_BLACK;
+		long opponent = Bitboard.START_WHITE;
+		for (int ply = 0; ply < plies; ply++)
+		{
+			long moves = Bitboard.legalMoves(player, opponent);
+			if (moves != 0)
+			{
+				int square = Long.numberOfTrailingZeros(moves);
+				long flips = Bitboard.flips(player, opponent, square);
+				player |= flips | (1L << square);
+				opponent ^= flips;
+			}
+			long swap = player;
+			player = opponent;
+			opponent = swap;
+		}
+		return new long[]{player, opponent};
+	}
+}
@@ -0,0 +1,19 @@
+#!/bin/sh
+# Compiles the three modules and packages them as jars in out/
+#   out/reversi-engine.jar - rules, search and self-play, java.base only, usable on the module path
+#   out/reversi-ui.jar     - the Swing game, run with: java -cp out/reversi-engine.jar:out/reversi-ui.jar game.reversi.Main
+#   out/reversi-bench.jar  - benchmarks, see bench.sh
+set -e
+cd "$(dirname "$0")"
+
+rm -rf out/classes
+mkdir -p out/classes/engine out/classes/ui out/classes/bench
+
+# Engine is a named module, so anything it needs from outside java.base fails here
+javac --release 11 -d out/classes/engine $(find engine/src -name '*.java')
+javac --release 11 -cp out/classes/engine -d out/classes/ui $(find ui/src -name '*.java')
+javac --release 11 -cp out/classes/engine:out/classes/ui -d out/classes/bench $(find bench/src -name '*.java')
+
+jar --create --file out/reversi-engine.jar -C out/classes/engine .
+jar --create --file out/reversi-ui.jar --main-class game.reversi.Main -C out/classes/ui .
+jar --create --file out/reversi-bench.jar -C out/classes/bench .
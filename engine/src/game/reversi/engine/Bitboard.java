@@ -0,0 +1,198 @@
+package game.reversi.engine;
+
+/**
+ * Headless move generation for an 8x8 board stored as two 64-bit masks
+ * <p>
+ * Square {@code row * 8 + col} maps to bit {@code 1L << (row * 8 + col)}, so
+ * {@code board[row][col]} of the Swing grid and the bitboards line up one-to-one
+ */
+public final class Bitboard
+{
+	/**
+	 * Number of rows and columns, and of squares on the board
+	 */
+	public static final int SIZE = 8;
+	public static final int SQUARES = 64;
+
+	/**
+	 * Every square except column 0 / column 7
+	 */
+	private static final long NOT_COL_0 = 0xFEFEFEFEFEFEFEFEL;
+	private static final long NOT_COL_7 = 0x7F7F7F7F7F7F7F7FL;
+
+	/**
+	 * The eight directions as a bit shift (positive = left, negative = right) and
+	 * the mask which removes the squares that wrapped around the board edge
+	 */
+	private static final int[] SHIFTS = {1, -1, 8, -8, 9, 7, -7, -9};
+	private static final long[] MASKS = {
+			NOT_COL_0, NOT_COL_7, -1L, -1L,
+			NOT_COL_0, NOT_COL_7, NOT_COL_0, NOT_COL_7
+	};
+
+	/**
+	 * The starting position, as set up by {@code Game.resetGame}
+	 */
+	public static final long START_BLACK = bit(4, 3) | bit(3, 4);
+	public static final long START_WHITE = bit(3, 3) | bit(4, 4);
+
+	private Bitboard()
+	{
+	}
+
+	/**
+	 * Gets the bit of a square
+	 *
+	 * @param row The row of the square
+	 * @param col The column of the square
+	 *
+	 * @return The single bit mask for the square
+	 */
+	public static long bit(int row, int col)
+	{
+		return 1L << square(row, col);
+	}
+
+	/**
+	 * Gets the square index of a row and column
+	 *
+	 * @param row The row of the square
+	 * @param col The column of the square
+	 *
+	 * @return The square index, 0 - 63
+	 */
+	public static int square(int row, int col)
+	{
+		return (row << 3) | col;
+	}
+
+	/**
+	 * Gets the row of a square index
+	 */
+	public static int row(int square)
+	{
+		return square >>> 3;
+	}
+
+	/**
+	 * Gets the column of a square index
+	 */
+	public static int col(int square)
+	{
+		return square & 7;
+	}
+
+	/**
+	 * Finds the direction index for a unit vector
+	 *
+	 * @param rowDir The row step, -1 to 1
+	 * @param colDir The column step, -1 to 1
+	 *
+	 * @return The direction index, or -1 for the zero vector
+	 */
+	public static int direction(int rowDir, int colDir)
+	{
+		int shift = rowDir * 8 + colDir;
+		for (int dir = 0; dir < SHIFTS.length; dir++)
+		{
+			if (SHIFTS[dir] == shift)
+			{
+				return dir;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Moves every bit one step in a direction, dropping bits that fall off the board
+	 *
+	 * @param bits The bits to move
+	 * @param dir  The direction index
+	 *
+	 * @return The shifted bits
+	 */
+	private static long shift(long bits, int dir)
+	{
+		int shift = SHIFTS[dir];
+		return (shift > 0 ? bits << shift : bits >>> -shift) & MASKS[dir];
+	}
+
+	/**
+	 * Generates every legal move for a player
+	 *
+	 * @param player   The discs of the player to move
+	 * @param opponent The discs of the opponent
+	 *
+	 * @return A mask of the empty squares which flip at least one disc
+	 */
+	public static long legalMoves(long player, long opponent)
+	{
+		long empty = ~(player | opponent);
+		long moves = 0;
+
+		for (int dir = 0; dir < 8; dir++)
+		{
+			/** Run along lines of opponent discs starting next to a player disc */
+			long line = shift(player, dir) & opponent;
+			line |= shift(line, dir) & opponent;
+			line |= shift(line, dir) & opponent;
+			line |= shift(line, dir) & opponent;
+			line |= shift(line, dir) & opponent;
+			line |= shift(line, dir) & opponent;
+
+			/** The empty square past the end of a line is a move */
+			moves |= shift(line, dir) & empty;
+		}
+		return moves;
+	}
+
+	/**
+	 * Works out every disc that playing a square would flip
+	 *
+	 * @param player   The discs of the player to move
+	 * @param opponent The discs of the opponent
+	 * @param square   The square being played
+	 *
+	 * @return The mask of opponent discs which would be flipped, 0 if the move is illegal
+	 */
+	public static long flips(long player, long opponent, int square)
+	{
+		long move = 1L << square;
+		if (((player | opponent) & move) != 0)
+		{
+			return 0;
+		}
+
+		long flips = 0;
+		for (int dir = 0; dir < 8; dir++)
+		{
+			flips |= flipsInDirection(player, opponent, move, dir);
+		}
+		return flips;
+	}
+
+	/**
+	 * Works out the discs that playing a square would flip along one direction
+	 *
+	 * @param player   The discs of the player to move
+	 * @param opponent The discs of the opponent
+	 * @param move     The single bit of the square being played
+	 * @param dir      The direction index
+	 *
+	 * @return The mask of opponent discs which would be flipped in that direction
+	 */
+	public static long flipsInDirection(long player, long opponent, long move, int dir)
+	{
+		long flips = 0;
+		long next = shift(move, dir);
+
+		while ((next & opponent) != 0)
+		{
+			flips |= next;
+			next = shift(next, dir);
+		}
+
+		/** Only a line capped by a player disc flips */
+		return (next & player) != 0 ? flips : 0;
+	}
+}
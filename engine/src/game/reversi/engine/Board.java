@@ -0,0 +1,139 @@
+package game.reversi.engine;
+
+/**
+ * A square board of any even size from 4 to 16, read and played by row and column
+ * <p>
+ * Boards of up to 8x8 are BoardState, a pair of bitboards, and bigger ones are
+ * LargeBoard, a bit mask per row. The search, pattern evaluation, opening book
+ * and endgame solver work on 8x8 bitboards only
+ */
+public interface Board
+{
+	/**
+	 * Smallest and biggest supported sizes
+	 */
+	int MIN_SIZE = 4;
+	int MAX_SIZE = 16;
+
+	/**
+	 * Creates a board set up at the starting position, a bitboard whenever the size allows
+	 *
+	 * @param size The number of rows and columns, even, 4 - 16
+	 *
+	 * @return The board
+	 */
+	static Board create(int size)
+	{
+		if (size <= Bitboard.SIZE)
+		{
+			return new BoardState(size);
+		}
+		return new LargeBoard(size);
+	}
+
+	/**
+	 * Gets the number of rows and columns
+	 */
+	int size();
+
+	/**
+	 * Puts the four starting discs in the middle of an empty board
+	 */
+	void reset();
+
+	/**
+	 * Gets the state of a cell
+	 *
+	 * @param row The row of the cell
+	 * @param col The column of the cell
+	 *
+	 * @return BoardState.EMPTY, WHITE or BLACK
+	 */
+	byte get(int row, int col);
+
+	/**
+	 * Counts the discs a move would flip
+	 *
+	 * @param color The colour to move
+	 * @param row   The row to play
+	 * @param col   The column to play
+	 *
+	 * @return The number of discs, 0 if the move is illegal
+	 */
+	int flipCount(byte color, int row, int col);
+
+	/**
+	 * Plays a move if it is legal, pushing it onto the undo stack
+	 *
+	 * @param color The colour to move
+	 * @param row   The row to play
+	 * @param col   The column to play
+	 *
+	 * @return The number of discs flipped, 0 if the move was illegal and nothing changed
+	 */
+	int play(byte color, int row, int col);
+
+	/**
+	 * Counts the legal moves of a colour
+	 *
+	 * @param color The colour to move
+	 *
+	 * @return The number of legal moves
+	 */
+	int mobility(byte color);
+
+	/**
+	 * Checks if a colour has a legal move
+	 *
+	 * @param color The colour to move
+	 *
+	 * @return True - There is a move | False - The colour has to pass
+	 */
+	boolean hasMoves(byte color);
+
+	/**
+	 * Works out whose turn it is after a colour has moved
+	 *
+	 * @param mover The colour which just moved
+	 *
+	 * @return The other colour, the same colour if the other must pass, or BoardState.EMPTY when the game is over
+	 */
+	byte nextToMove(byte mover);
+
+	/**
+	 * Counts the discs of a colour
+	 *
+	 * @param color WHITE or BLACK
+	 *
+	 * @return The number of discs
+	 */
+	int count(byte color);
+
+	/**
+	 * Takes back the last move
+	 *
+	 * @return False if there was no move to take back
+	 */
+	boolean undo();
+
+	/**
+	 * Plays again the last move taken back
+	 *
+	 * @return False if there was no move to redo
+	 */
+	boolean redo();
+
+	/**
+	 * Gets the number of moves on the undo stack
+	 */
+	int getPly();
+
+	/**
+	 * Gets the colour of a move on the undo stack
+	 *
+	 * @param index The move, 0 for the first
+	 *
+	 * @return WHITE or BLACK
+	 */
+	byte getMoveColor(int index);
+}
@@ -0,0 +1,581 @@
+package game.reversi.engine;
+
+/**
+ * The state of the game board, with no dependency on the Swing discs
+ * <p>
+ * Cells are read as the byte constants below, which use the same numbering as
+ * the old {@code Disc} state. Nothing in here locks or allocates, so a board
+ * may be used freely on any single thread
+ * <p>
+ * Every move played is pushed onto an undo stack of the square, the colour and
+ * the discs it flipped, so moves can be taken back and played again without
+ * copying the board. Setting the discs directly clears the stack
+ * <p>
+ * The legal moves of both colours are worked out together the first time
+ * either is asked for and kept until the board changes, so pass checks,
+ * game over checks and move choice for one position share one calculation
+ * <p>
+ * A board smaller than 8x8 sits in the top left corner of the bitboards. The
+ * squares outside it are always empty so no line of discs runs through them,
+ * and the legal moves are masked to the squares inside
+ */
+public final class BoardState implements Board
+{
+	/**
+	 * Cell states
+	 */
+	public static final byte EMPTY = 0;
+	public static final byte WHITE = 1;
+	public static final byte BLACK = 2;
+
+	/**
+	 * The number of rows and columns and the mask of the squares on the board
+	 */
+	private final int size;
+	private final long valid;
+
+	/**
+	 * The discs of each colour
+	 */
+	private long black;
+	private long white;
+
+	/**
+	 * Undo stack, one entry per move. Entries above ply are moves taken back
+	 * which can be redone, up to redoPly
+	 */
+	private final int[] squares = new int[Bitboard.SQUARES];
+	private final byte[] colors = new byte[Bitboard.SQUARES];
+	private final long[] flipped = new long[Bitboard.SQUARES];
+	private int ply;
+	private int redoPly;
+
+	/**
+	 * Legal moves of each colour, valid while movesKnown is set
+	 */
+	private long blackMoves;
+	private long whiteMoves;
+	private boolean movesKnown;
+
+	/**
+	 * Creates a board set up at the starting position
+	 */
+	public BoardState()
+	{
+		this(Bitboard.SIZE);
+	}
+
+	/**
+	 * Creates a board of up to 8x8 set up at the starting position
+	 *
+	 * @param size The number of rows and columns, even, 4 - 8
+	 */
+	public BoardState(int size)
+	{
+		if (size < MIN_SIZE || size > Bitboard.SIZE || size % 2 != 0)
+		{
+			throw new IllegalArgumentException("Unsupported bitboard size: " + size);
+		}
+		this.size = size;
+
+		long rowMask = (1L << size) - 1;
+		long valid = 0;
+		for (int row = 0; row < size; row++)
+		{
+			valid |= rowMask << (row * Bitboard.SIZE);
+		}
+		this.valid = valid;
+
+		reset();
+	}
+
+	/**
+	 * Creates a board from the discs of each colour
+	 *
+	 * @param black The black discs
+	 * @param white The white discs
+	 */
+	public BoardState(long black, long white)
+	{
+		this.size = Bitboard.SIZE;
+		this.valid = -1L;
+		setDiscs(black, white);
+	}
+
+	/**
+	 * Puts the four starting discs in the middle of an empty board
+	 */
+	@Override
+	public void reset()
+	{
+		int middle = size / 2;
+		black = Bitboard.bit(middle, middle - 1) | Bitboard.bit(middle - 1, middle);
+		white = Bitboard.bit(middle - 1, middle - 1) | Bitboard.bit(middle, middle);
+		movesKnown = false;
+		clearHistory();
+	}
+
+	/**
+	 * Replaces every disc on the board
+	 *
+	 * @param black The black discs
+	 * @param white The white discs
+	 */
+	public void setDiscs(long black, long white)
+	{
+		if ((black & white) != 0)
+		{
+			throw new IllegalArgumentException("Square holds both colours");
+		}
+		if (((black | white) & ~valid) != 0)
+		{
+			throw new IllegalArgumentException("Disc off the board");
+		}
+		this.black = black;
+		this.white = white;
+		movesKnown = false;
+		clearHistory();
+	}
+
+	/**
+	 * Copies another board into this one
+	 *
+	 * @param other The board to copy
+	 */
+	public void copyFrom(BoardState other)
+	{
+		if (other.size != size)
+		{
+			throw new IllegalArgumentException("Board sizes differ: " + other.size + " and " + size);
+		}
+		black = other.black;
+		white = other.white;
+		blackMoves = other.blackMoves;
+		whiteMoves = other.whiteMoves;
+		movesKnown = other.movesKnown;
+		clearHistory();
+	}
+
+	/**
+	 * Gets the number of rows and columns
+	 */
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Gets the state of a cell
+	 *
+	 * @param row The row of the cell
+	 * @param col The column of the cell
+	 *
+	 * @return EMPTY, WHITE or BLACK
+	 */
+	@Override
+	public byte get(int row, int col)
+	{
+		return get(Bitboard.square(row, col));
+	}
+
+	/**
+	 * Gets the state of a cell
+	 *
+	 * @param square The square index of the cell
+	 *
+	 * @return EMPTY, WHITE or BLACK
+	 */
+	public byte get(int square)
+	{
+		long bit = 1L << square;
+		if ((black & bit) != 0)
+		{
+			return BLACK;
+		} else if ((white & bit) != 0)
+		{
+			return WHITE;
+		} else
+		{
+			return EMPTY;
+		}
+	}
+
+	/**
+	 * Sets the state of a cell, without applying any rules
+	 *
+	 * @param row   The row of the cell
+	 * @param col   The column of the cell
+	 * @param state EMPTY, WHITE or BLACK
+	 */
+	public void set(int row, int col, byte state)
+	{
+		long bit = Bitboard.bit(row, col);
+		if ((bit & valid) == 0)
+		{
+			throw new IllegalArgumentException("Cell off the board: " + row + " " + col);
+		}
+		black &= ~bit;
+		white &= ~bit;
+		movesKnown = false;
+		clearHistory();
+
+		switch (state)
+		{
+			case EMPTY:
+				break;
+			case WHITE:
+				white |= bit;
+				break;
+			case BLACK:
+				black |= bit;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown 'state': " + state);
+		}
+	}
+
+	/**
+	 * Gets the discs of a colour
+	 *
+	 * @param color WHITE or BLACK
+	 *
+	 * @return The mask of that colour's discs
+	 */
+	public long discs(byte color)
+	{
+		switch (color)
+		{
+			case WHITE:
+				return white;
+			case BLACK:
+				return black;
+			default:
+				throw new IllegalArgumentException("Unknown color: " + color);
+		}
+	}
+
+	/**
+	 * Gets the black discs
+	 */
+	public long getBlack()
+	{
+		return black;
+	}
+
+	/**
+	 * Gets the white discs
+	 */
+	public long getWhite()
+	{
+		return white;
+	}
+
+	/**
+	 * Counts the discs of a colour
+	 *
+	 * @param color WHITE or BLACK
+	 *
+	 * @return The number of discs
+	 */
+	@Override
+	public int count(byte color)
+	{
+		return Long.bitCount(discs(color));
+	}
+
+	/**
+	 * Gets every legal move for a colour
+	 *
+	 * @param color The colour to move
+	 *
+	 * @return The mask of legal squares
+	 */
+	public long legalMoves(byte color)
+	{
+		if (!movesKnown)
+		{
+			blackMoves = Bitboard.legalMoves(black, white) & valid;
+			whiteMoves = Bitboard.legalMoves(white, black) & valid;
+			movesKnown = true;
+		}
+
+		switch (color)
+		{
+			case WHITE:
+				return whiteMoves;
+			case BLACK:
+				return blackMoves;
+			default:
+				throw new IllegalArgumentException("Unknown color: " + color);
+		}
+	}
+
+	/**
+	 * Counts the legal moves of a colour
+	 *
+	 * @param color The colour to move
+	 *
+	 * @return The number of legal moves
+	 */
+	@Override
+	public int mobility(byte color)
+	{
+		return Long.bitCount(legalMoves(color));
+	}
+
+	/**
+	 * Checks if a colour has a legal move
+	 *
+	 * @param color The colour to move
+	 *
+	 * @return True - There is a move | False - The colour has to pass
+	 */
+	@Override
+	public boolean hasMoves(byte color)
+	{
+		return legalMoves(color) != 0;
+	}
+
+	/**
+	 * Works out whose turn it is after a colour has moved: the other colour if
+	 * it can move, the same colour again if the other has to pass, or nobody
+	 * if neither can move and the game is over
+	 *
+	 * @param mover The colour which just moved
+	 *
+	 * @return The colour to move next, or EMPTY when the game is over
+	 */
+	@Override
+	public byte nextToMove(byte mover)
+	{
+		byte other = opponent(mover);
+		if (hasMoves(other))
+		{
+			return other;
+		} else if (hasMoves(mover))
+		{
+			return mover;
+		} else
+		{
+			return EMPTY;
+		}
+	}
+
+	/**
+	 * Checks if neither colour can move
+	 *
+	 * @return True - The game is over
+	 */
+	public boolean isGameOver()
+	{
+		return legalMoves(BLACK) == 0 && whiteMoves == 0;
+	}
+
+	/**
+	 * Works out which discs a move would flip
+	 *
+	 * @param color  The colour to move
+	 * @param square The square to play
+	 *
+	 * @return The mask of discs that would flip, 0 if the move is illegal
+	 */
+	public long flips(byte color, int square)
+	{
+		if ((legalMoves(color) & (1L << square)) == 0)
+		{
+			return 0;
+		}
+		return Bitboard.flips(discs(color), discs(opponent(color)), square);
+	}
+
+	@Override
+	public int flipCount(byte color, int row, int col)
+	{
+		return Long.bitCount(flips(color, Bitboard.square(row, col)));
+	}
+
+	@Override
+	public int play(byte color, int row, int col)
+	{
+		return Long.bitCount(play(color, Bitboard.square(row, col)));
+	}
+
+	/**
+	 * Plays a move if it is legal
+	 *
+	 * @param color  The colour to move
+	 * @param square The square to play
+	 *
+	 * @return The mask of discs that flipped, 0 if the move was illegal and nothing changed
+	 */
+	public long play(byte color, int square)
+	{
+		long flips = flips(color, square);
+		if (flips != 0)
+		{
+			apply(color, square, flips);
+		}
+		return flips;
+	}
+
+	/**
+	 * Places a disc and flips the given discs without checking the rules, and
+	 * pushes it onto the undo stack. Any moves waiting to be redone are dropped
+	 *
+	 * @param color  The colour to move
+	 * @param square The empty square to place on
+	 * @param flips  The opponent discs to flip
+	 */
+	public void apply(byte color, int square, long flips)
+	{
+		if (((black | white) & (1L << square)) != 0)
+		{
+			throw new IllegalArgumentException("Square is not empty: " + square);
+		}
+
+		squares[ply] = square;
+		colors[ply] = color;
+		flipped[ply] = flips;
+		ply++;
+		redoPly = ply;
+
+		place(color, square, flips);
+	}
+
+	/**
+	 * Takes back the last move
+	 *
+	 * @return False if there was no move to take back
+	 */
+	@Override
+	public boolean undo()
+	{
+		if (ply == 0)
+		{
+			return false;
+		}
+
+		ply--;
+		movesKnown = false;
+		long flips = flipped[ply];
+		long bit = 1L << squares[ply];
+		if (colors[ply] == BLACK)
+		{
+			black &= ~(flips | bit);
+			white |= flips;
+		} else
+		{
+			white &= ~(flips | bit);
+			black |= flips;
+		}
+		return true;
+	}
+
+	/**
+	 * Plays again the last move taken back
+	 *
+	 * @return False if there was no move to redo
+	 */
+	@Override
+	public boolean redo()
+	{
+		if (ply == redoPly)
+		{
+			return false;
+		}
+
+		place(colors[ply], squares[ply], flipped[ply]);
+		ply++;
+		return true;
+	}
+
+	/**
+	 * Gets the number of moves on the undo stack
+	 */
+	@Override
+	public int getPly()
+	{
+		return ply;
+	}
+
+	/**
+	 * Gets the number of moves taken back which can be redone
+	 */
+	public int getRedoCount()
+	{
+		return redoPly - ply;
+	}
+
+	/**
+	 * Gets the colour of a move on the undo stack
+	 *
+	 * @param index The move, 0 for the first
+	 *
+	 * @return WHITE or BLACK
+	 */
+	@Override
+	public byte getMoveColor(int index)
+	{
+		return colors[index];
+	}
+
+	/**
+	 * Gets the square of a move on the undo stack
+	 *
+	 * @param index The move, 0 for the first
+	 *
+	 * @return The square
+	 */
+	public int getMoveSquare(int index)
+	{
+		return squares[index];
+	}
+
+	/**
+	 * Places a disc and flips discs, without touching the undo stack
+	 */
+	private void place(byte color, int square, long flips)
+	{
+		movesKnown = false;
+		long placed = flips | (1L << square);
+		if (color == BLACK)
+		{
+			black |= placed;
+			white &= ~flips;
+		} else
+		{
+			white |= placed;
+			black &= ~flips;
+		}
+	}
+
+	/**
+	 * Empties the undo stack
+	 */
+	private void clearHistory()
+	{
+		ply = 0;
+		redoPly = 0;
+	}
+
+	/**
+	 * Gets the other colour
+	 *
+	 * @param color WHITE or BLACK
+	 *
+	 * @return BLACK or WHITE
+	 */
+	public static byte opponent(byte color)
+	{
+		switch (color)
+		{
+			case WHITE:
+				return BLACK;
+			case BLACK:
+				return WHITE;
+			default:
+				throw new IllegalArgumentException("Unknown color: " + color);
+		}
+	}
+}
@@ -0,0 +1,523 @@
+package game.reversi.engine;
+
+/**
+ * Perfect play for the end of the game
+ * <p>
+ * Searches every line to the end and returns the exact final disc difference
+ * (the mover's discs minus the opponent's, empty squares left over count for
+ * neither, the same as Game counts them). Moves are tried fastest-first while
+ * many squares are empty, then by region parity, and the last three empty
+ * squares have their own unrolled routines
+ */
+public class EndgameSolver
+{
+	/**
+	 * Returned by solveBestMove when it runs out of time
+	 */
+	public static final int TIMED_OUT = -2;
+
+	/**
+	 * Bounds on a disc difference
+	 */
+	private static final int MAX_SCORE = 64;
+
+	/**
+	 * Above this many empties moves are sorted by the opponent's replies
+	 */
+	private static final int FASTEST_FIRST_EMPTIES = 7;
+
+	/**
+	 * How many nodes to search between checks of the clock
+	 */
+	private static final int CLOCK_CHECK_NODES = 4096;
+
+	/**
+	 * How long solves take, measured on positions from random games: one with
+	 * ESTIMATE_EMPTIES empties is solved within ESTIMATE_NANOS and each further
+	 * empty square makes that about GROWTH times longer
+	 */
+	private static final int ESTIMATE_EMPTIES = 14;
+	private static final long ESTIMATE_NANOS = 60000000L;
+	private static final double GROWTH = 3.5;
+
+	/**
+	 * The four 4x4 quadrants, the regions used for parity
+	 */
+	private static final long[] QUADRANTS = {
+			0x000000000F0F0F0FL, 0x00000000F0F0F0F0L,
+			0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+	};
+
+	/**
+	 * Move lists for each number of empties, so sorting never allocates. There
+	 * are never more moves than empty squares, so each list holds that many
+	 */
+	private final int[][] moveSquares = moveLists();
+	private final int[][] moveKeys = moveLists();
+
+	/**
+	 * Counters and time keeping
+	 */
+	private long nodes;
+	private long deadline;
+	private boolean stopped;
+	private int bestScore;
+
+	/**
+	 * Creates a solver, which must only be used by one thread at a time
+	 */
+	public EndgameSolver()
+	{
+	}
+
+	/**
+	 * Works out the exact result of a position with perfect play
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 *
+	 * @return The final disc difference from the side to move's point of view
+	 */
+	public int solve(long player, long opponent)
+	{
+		startClock(Long.MAX_VALUE);
+		return solve(player, opponent, -MAX_SCORE, MAX_SCORE, false, Long.bitCount(~(player | opponent)));
+	}
+
+	/**
+	 * Finds the best move and its exact result, giving up at a deadline
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param deadline The System.nanoTime() to give up at
+	 *
+	 * @return The best square, Search.NO_MOVE if the player must pass, or TIMED_OUT
+	 */
+	public int solveBestMove(long player, long opponent, long deadline)
+	{
+		startClock(deadline);
+
+		long moves = Bitboard.legalMoves(player, opponent);
+		if (moves == 0)
+		{
+			bestScore = -solve(opponent, player, -MAX_SCORE, MAX_SCORE, true, Long.bitCount(~(player | opponent)));
+			return stopped ? TIMED_OUT : Search.NO_MOVE;
+		}
+
+		int empties = Long.bitCount(~(player | opponent));
+		int count = sortFastestFirst(player, opponent, moves, empties);
+
+		int alpha = -MAX_SCORE - 1;
+		int bestMove = moveSquares[empties][0];
+		for (int i = 0; i < count; i++)
+		{
+			int square = moveSquares[empties][i];
+			long flips = Bitboard.flips(player, opponent, square);
+			int score = -solve(opponent ^ flips, player | flips | (1L << square), -MAX_SCORE, -alpha, false,
+					empties - 1);
+			if (stopped)
+			{
+				return TIMED_OUT;
+			}
+			if (score > alpha)
+			{
+				alpha = score;
+				bestMove = square;
+			}
+		}
+
+		bestScore = alpha;
+		return bestMove;
+	}
+
+	/**
+	 * Gets the most empty squares a position can have and still be expected to
+	 * be solved in time. A search uses this to decide whether trying to solve is
+	 * worth it, as a solve that runs out of time is wasted
+	 *
+	 * @param nanos The time the solve may take, in nanoseconds
+	 *
+	 * @return The number of empty squares
+	 */
+	public static int maxEmpties(long nanos)
+	{
+		int empties = ESTIMATE_EMPTIES;
+		double time = ESTIMATE_NANOS;
+		while (empties > 0 && time > nanos)
+		{
+			time /= GROWTH;
+			empties--;
+		}
+		while (empties < Bitboard.SQUARES && time * GROWTH <= nanos)
+		{
+			time *= GROWTH;
+			empties++;
+		}
+		return empties;
+	}
+
+	/**
+	 * Resets the node counter and sets when the solve has to stop
+	 */
+	private void startClock(long deadline)
+	{
+		this.nodes = 0;
+		this.stopped = false;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Alpha-beta search to the end of the game
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param alpha    The lower bound
+	 * @param beta     The upper bound
+	 * @param passed   If the previous move was a pass
+	 * @param empties  The number of empty squares
+	 *
+	 * @return The final disc difference from the side to move's point of view
+	 */
+	private int solve(long player, long opponent, int alpha, int beta, boolean passed, int empties)
+	{
+		if ((++nodes & (CLOCK_CHECK_NODES - 1)) == 0 && System.nanoTime() > deadline)
+		{
+			stopped = true;
+		}
+		if (stopped)
+		{
+			return 0;
+		}
+
+		long empty = ~(player | opponent);
+		switch (empties)
+		{
+			case 0:
+				return Long.bitCount(player) - Long.bitCount(opponent);
+			case 1:
+				return solve1(player, opponent, Long.numberOfTrailingZeros(empty));
+			case 2:
+			{
+				int first = Long.numberOfTrailingZeros(empty);
+				int second = Long.numberOfTrailingZeros(empty & (empty - 1));
+				return solve2(player, opponent, alpha, beta, first, second, passed);
+			}
+			case 3:
+			{
+				int first = Long.numberOfTrailingZeros(empty);
+				empty &= empty - 1;
+				int second = Long.numberOfTrailingZeros(empty);
+				empty &= empty - 1;
+				return solve3(player, opponent, alpha, beta, first, second, Long.numberOfTrailingZeros(empty), passed);
+			}
+		}
+
+		long moves = Bitboard.legalMoves(player, opponent);
+		if (moves == 0)
+		{
+			if (passed)
+			{
+				return Long.bitCount(player) - Long.bitCount(opponent);
+			}
+			return -solve(opponent, player, -beta, -alpha, true, empties);
+		}
+
+		int best = -MAX_SCORE - 1;
+		if (empties > FASTEST_FIRST_EMPTIES)
+		{
+			int count = sortFastestFirst(player, opponent, moves, empties);
+			for (int i = 0; i < count; i++)
+			{
+				int square = moveSquares[empties][i];
+				long flips = Bitboard.flips(player, opponent, square);
+				int score = -solve(opponent ^ flips, player | flips | (1L << square), -beta, -alpha, false,
+						empties - 1);
+				if (score > best)
+				{
+					best = score;
+					if (score > alpha)
+					{
+						alpha = score;
+						if (alpha >= beta)
+						{
+							break;
+						}
+					}
+				}
+			}
+			return best;
+		}
+
+		/** Moves into regions with an odd number of empties first, then the rest */
+		long odd = oddRegions(empty);
+		for (int pass = 0; pass < 2; pass++)
+		{
+			long group = moves & (pass == 0 ? odd : ~odd);
+			while (group != 0)
+			{
+				int square = Long.numberOfTrailingZeros(group);
+				group &= group - 1;
+
+				long flips = Bitboard.flips(player, opponent, square);
+				int score = -solve(opponent ^ flips, player | flips | (1L << square), -beta, -alpha, false,
+						empties - 1);
+				if (score > best)
+				{
+					best = score;
+					if (score > alpha)
+					{
+						alpha = score;
+						if (alpha >= beta)
+						{
+							return best;
+						}
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Last empty square
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param square   The empty square
+	 *
+	 * @return The final disc difference from the side to move's point of view
+	 */
+	private int solve1(long player, long opponent, int square)
+	{
+		int diff = Long.bitCount(player) - Long.bitCount(opponent);
+
+		long flips = Bitboard.flips(player, opponent, square);
+		if (flips != 0)
+		{
+			return diff + 2 * Long.bitCount(flips) + 1;
+		}
+
+		/** Player passes, opponent may still fill it */
+		flips = Bitboard.flips(opponent, player, square);
+		if (flips != 0)
+		{
+			return diff - 2 * Long.bitCount(flips) - 1;
+		}
+		return diff;
+	}
+
+	/**
+	 * Last two empty squares
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param alpha    The lower bound
+	 * @param beta     The upper bound
+	 * @param first    The first empty square
+	 * @param second   The second empty square
+	 * @param passed   If the previous move was a pass
+	 *
+	 * @return The final disc difference from the side to move's point of view
+	 */
+	private int solve2(long player, long opponent, int alpha, int beta, int first, int second, boolean passed)
+	{
+		nodes++;
+		int best = -MAX_SCORE - 1;
+
+		long flips = Bitboard.flips(player, opponent, first);
+		if (flips != 0)
+		{
+			best = -solve1(opponent ^ flips, player | flips | (1L << first), second);
+			if (best >= beta)
+			{
+				return best;
+			}
+		}
+
+		flips = Bitboard.flips(player, opponent, second);
+		if (flips != 0)
+		{
+			best = Math.max(best, -solve1(opponent ^ flips, player | flips | (1L << second), first));
+		}
+
+		if (best == -MAX_SCORE - 1)
+		{
+			if (passed)
+			{
+				return Long.bitCount(player) - Long.bitCount(opponent);
+			}
+			return -solve2(opponent, player, -beta, -alpha, first, second, true);
+		}
+		return best;
+	}
+
+	/**
+	 * Last three empty squares, the one alone in its region tried first
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param alpha    The lower bound
+	 * @param beta     The upper bound
+	 * @param first    The first empty square
+	 * @param second   The second empty square
+	 * @param third    The third empty square
+	 * @param passed   If the previous move was a pass
+	 *
+	 * @return The final disc difference from the side to move's point of view
+	 */
+	private int solve3(long player, long opponent, int alpha, int beta, int first, int second, int third,
+	                   boolean passed)
+	{
+		nodes++;
+
+		/** Parity: if two squares share a region, play the odd one out first */
+		if (quadrant(first) == quadrant(second) && quadrant(first) != quadrant(third))
+		{
+			int swap = third;
+			third = second;
+			second = first;
+			first = swap;
+		} else if (quadrant(first) == quadrant(third) && quadrant(first) != quadrant(second))
+		{
+			int swap = second;
+			second = first;
+			first = swap;
+		}
+
+		int best = -MAX_SCORE - 1;
+
+		long flips = Bitboard.flips(player, opponent, first);
+		if (flips != 0)
+		{
+			best = -solve2(opponent ^ flips, player | flips | (1L << first), -beta, -alpha, second, third, false);
+			if (best >= beta)
+			{
+				return best;
+			}
+			alpha = Math.max(alpha, best);
+		}
+
+		flips = Bitboard.flips(player, opponent, second);
+		if (flips != 0)
+		{
+			best = Math.max(best,
+					-solve2(opponent ^ flips, player | flips | (1L << second), -beta, -alpha, first, third, false));
+			if (best >= beta)
+			{
+				return best;
+			}
+			alpha = Math.max(alpha, best);
+		}
+
+		flips = Bitboard.flips(player, opponent, third);
+		if (flips != 0)
+		{
+			best = Math.max(best,
+					-solve2(opponent ^ flips, player | flips | (1L << third), -beta, -alpha, first, second, false));
+		}
+
+		if (best == -MAX_SCORE - 1)
+		{
+			if (passed)
+			{
+				return Long.bitCount(player) - Long.bitCount(opponent);
+			}
+			return -solve3(opponent, player, -beta, -alpha, first, second, third, true);
+		}
+		return best;
+	}
+
+	/**
+	 * Sorts moves by how few replies they leave the opponent, odd regions first on ties
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param moves    The legal moves
+	 * @param empties  The number of empty squares, picks the buffer to sort into
+	 *
+	 * @return The number of moves, stored in moveSquares[empties]
+	 */
+	private int sortFastestFirst(long player, long opponent, long moves, int empties)
+	{
+		int[] squares = moveSquares[empties];
+		int[] keys = moveKeys[empties];
+		long odd = oddRegions(~(player | opponent));
+		int count = 0;
+
+		while (moves != 0)
+		{
+			int square = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+
+			long flips = Bitboard.flips(player, opponent, square);
+			long bit = 1L << square;
+			int key = 2 * Long.bitCount(Bitboard.legalMoves(opponent ^ flips, player | flips | bit))
+					          + ((odd & bit) != 0 ? 0 : 1);
+
+			/** Insertion sort, there are never many moves */
+			int i = count++;
+			while (i > 0 && keys[i - 1] > key)
+			{
+				squares[i] = squares[i - 1];
+				keys[i] = keys[i - 1];
+				i--;
+			}
+			squares[i] = square;
+			keys[i] = key;
+		}
+		return count;
+	}
+
+	/**
+	 * Makes a move list for each number of empties, as long as that number
+	 */
+	private static int[][] moveLists()
+	{
+		int[][] lists = new int[Bitboard.SQUARES + 1][];
+		for (int empties = 0; empties < lists.length; empties++)
+		{
+			lists[empties] = new int[empties];
+		}
+		return lists;
+	}
+
+	/**
+	 * Gets the squares of every region with an odd number of empties
+	 */
+	private static long oddRegions(long empty)
+	{
+		long odd = 0;
+		for (long quadrant : QUADRANTS)
+		{
+			if ((Long.bitCount(empty & quadrant) & 1) != 0)
+			{
+				odd |= quadrant;
+			}
+		}
+		return odd;
+	}
+
+	/**
+	 * Gets the region of a square, 0 - 3
+	 */
+	private static int quadrant(int square)
+	{
+		return (Bitboard.row(square) >= 4 ? 2 : 0) + (Bitboard.col(square) >= 4 ? 1 : 0);
+	}
+
+	/**
+	 * Gets the number of nodes visited by the last solve
+	 */
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	/**
+	 * Gets the exact score of the move returned by the last solveBestMove
+	 */
+	public int getBestScore()
+	{
+		return bestScore;
+	}
+}
@@ -0,0 +1,202 @@
+package game.reversi.engine;
+
+/**
+ * One finished 8x8 game: the players, the result, when it was played and its moves
+ * <p>
+ * A record is filled in move by move as a game is played and can be reused
+ * for the next game, so a self-play worker needs just one. In a record file
+ * (see GameRecordWriter) each game is a small header and then one byte per
+ * move, the square played. Passes are not stored: a side passes exactly when
+ * it has no legal move, so replaying the moves puts them back
+ * <p>
+ * File: magic "RVGR", version, then the records one after another. Record:
+ * length of the rest of the record (2), start time in epoch milliseconds (8),
+ * duration in milliseconds (4), black's discs minus white's (1), black's name
+ * length and UTF-8 bytes, white's name length and UTF-8 bytes, the number of
+ * moves (1) and the moves
+ */
+public final class GameRecord
+{
+	/**
+	 * File header: magic "RVGR" and version
+	 */
+	static final int MAGIC = 0x52564752;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 8;
+
+	/**
+	 * Record header before the names: start time, duration and result
+	 */
+	static final int FIXED_BYTES = 13;
+
+	/**
+	 * Limits of the single byte lengths
+	 */
+	public static final int MAX_NAME_BYTES = 255;
+	public static final int MAX_MOVES = Bitboard.SQUARES - 4;
+
+	/**
+	 * The players
+	 */
+	private String blackName;
+	private String whiteName;
+
+	/**
+	 * When the game started, in epoch milliseconds, and how long it took
+	 */
+	private long startMillis;
+	private int durationMillis;
+
+	/**
+	 * Black's discs minus white's discs at the end
+	 */
+	private int result;
+
+	/**
+	 * The squares played, in order
+	 */
+	private final byte[] moves = new byte[MAX_MOVES];
+	private int moveCount;
+
+	/**
+	 * Creates an empty record, filled in by start, addMove and finish
+	 */
+	public GameRecord()
+	{
+	}
+
+	/**
+	 * Clears the record for a new game
+	 *
+	 * @param blackName   The player with black
+	 * @param whiteName   The player with white
+	 * @param startMillis When the game started, in epoch milliseconds
+	 */
+	public void start(String blackName, String whiteName, long startMillis)
+	{
+		this.blackName = blackName;
+		this.whiteName = whiteName;
+		this.startMillis = startMillis;
+		this.durationMillis = 0;
+		this.result = 0;
+		this.moveCount = 0;
+	}
+
+	/**
+	 * Adds the next move
+	 *
+	 * @param square The square played
+	 */
+	public void addMove(int square)
+	{
+		if (moveCount == MAX_MOVES)
+		{
+			throw new IllegalStateException("Game has more than " + MAX_MOVES + " moves");
+		}
+		moves[moveCount++] = (byte) square;
+	}
+
+	/**
+	 * Sets the end of game fields
+	 *
+	 * @param result         Black's discs minus white's discs
+	 * @param durationMillis How long the game took, in milliseconds
+	 */
+	public void finish(int result, int durationMillis)
+	{
+		this.result = result;
+		this.durationMillis = durationMillis;
+	}
+
+	/**
+	 * Plays the moves through from the starting position
+	 *
+	 * @return Black's discs minus white's discs after the last move
+	 *
+	 * @throws IllegalStateException if a move is illegal
+	 */
+	public int replay()
+	{
+		long toMove = Bitboard.START_BLACK;
+		long waiting = Bitboard.START_WHITE;
+		boolean blackToMove = true;
+
+		for (int i = 0; i < moveCount; i++)
+		{
+			/** A side with no move passed */
+			long legal = Bitboard.legalMoves(toMove, waiting);
+			if (legal == 0)
+			{
+				long swap = toMove;
+				toMove = waiting;
+				waiting = swap;
+				blackToMove = !blackToMove;
+				legal = Bitboard.legalMoves(toMove, waiting);
+			}
+
+			int square = moves[i];
+			if (square < 0 || square >= Bitboard.SQUARES || (legal & (1L << square)) == 0)
+			{
+				throw new IllegalStateException("Illegal move " + square + " at ply " + i);
+			}
+			long flips = Bitboard.flips(toMove, waiting, square);
+			toMove |= flips | (1L << square);
+			waiting ^= flips;
+
+			long swap = toMove;
+			toMove = waiting;
+			waiting = swap;
+			blackToMove = !blackToMove;
+		}
+
+		int difference = Long.bitCount(toMove) - Long.bitCount(waiting);
+		return blackToMove ? difference : -difference;
+	}
+
+	/** ------- */
+	/** Getters */
+	/** ------- */
+
+	public String getBlackName()
+	{
+		return blackName;
+	}
+
+	public String getWhiteName()
+	{
+		return whiteName;
+	}
+
+	public long getStartMillis()
+	{
+		return startMillis;
+	}
+
+	public int getDurationMillis()
+	{
+		return durationMillis;
+	}
+
+	public int getResult()
+	{
+		return result;
+	}
+
+	public int getMoveCount()
+	{
+		return moveCount;
+	}
+
+	public int getMove(int index)
+	{
+		return moves[index];
+	}
+
+	/**
+	 * Gets the moves array itself, valid up to getMoveCount, for writing out without a copy
+	 */
+	byte[] moves()
+	{
+		return moves;
+	}
+}
@@ -0,0 +1,307 @@
+package game.reversi.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a game record file (see GameRecord for the format) straight from a
+ * memory mapping
+ * <p>
+ * The reader is a cursor: next moves to the following game and the getters
+ * read its fields out of the mapping, so going through a file copies and
+ * allocates nothing except for the names, which are only decoded when asked
+ * for. Big files are mapped a window at a time
+ * <p>
+ * Usage: GameRecordReader file [--verify], prints a summary and with --verify
+ * replays every game to check its moves and result
+ */
+public class GameRecordReader implements Closeable
+{
+	/**
+	 * Most of the file mapped at once
+	 */
+	private static final long WINDOW_BYTES = 1L << 28;
+
+	/**
+	 * The file
+	 */
+	private final FileChannel channel;
+	private final long fileSize;
+
+	/**
+	 * The mapped window and where it starts in the file
+	 */
+	private MappedByteBuffer buffer;
+	private long bufferStart;
+
+	/**
+	 * Where the next record starts in the file
+	 */
+	private long position;
+
+	/**
+	 * Offsets of the current record's fields in the window
+	 */
+	private int fixedOffset = -1;
+	private int blackOffset;
+	private int whiteOffset;
+	private int movesOffset;
+
+	/**
+	 * Opens the file and checks its header
+	 *
+	 * @param channel The file
+	 */
+	private GameRecordReader(FileChannel channel) throws IOException
+	{
+		this.channel = channel;
+		this.fileSize = channel.size();
+		if (fileSize < GameRecord.HEADER_BYTES)
+		{
+			throw new IOException("Not a game record file");
+		}
+
+		map(0, GameRecord.HEADER_BYTES);
+		if (buffer.getInt(0) != GameRecord.MAGIC)
+		{
+			throw new IOException("Not a game record file");
+		}
+		if (buffer.getInt(4) != GameRecord.VERSION)
+		{
+			throw new IOException("Unsupported game record version: " + buffer.getInt(4));
+		}
+		this.position = GameRecord.HEADER_BYTES;
+	}
+
+	/**
+	 * Opens a game record file
+	 *
+	 * @param file The file
+	 *
+	 * @return A reader before the first game
+	 */
+	public static GameRecordReader open(Path file) throws IOException
+	{
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try
+		{
+			return new GameRecordReader(channel);
+		} catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1)
+		{
+			System.out.println("Usage: GameRecordReader file [--verify]");
+			return;
+		}
+		boolean verify = args.length > 1 && args[1].equals("--verify");
+
+		long games = 0;
+		long blackWins = 0;
+		long whiteWins = 0;
+		long moves = 0;
+		long millis = 0;
+		GameRecord record = new GameRecord();
+		long start = System.nanoTime();
+		try (GameRecordReader reader = open(Paths.get(args[0])))
+		{
+			while (reader.next())
+			{
+				games++;
+				moves += reader.getMoveCount();
+				millis += reader.getDurationMillis();
+				if (reader.getResult() > 0)
+				{
+					blackWins++;
+				} else if (reader.getResult() < 0)
+				{
+					whiteWins++;
+				}
+
+				if (verify)
+				{
+					reader.copyTo(record);
+					if (record.replay() != record.getResult())
+					{
+						throw new IllegalStateException("Game " + games + " does not end with its result");
+					}
+				}
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%d games read in %.2fs%s | black wins %d | white wins %d | draws %d"
+				                  + " | average %.1f moves, %.1fms%n",
+				games, seconds, verify ? " and verified" : "", blackWins, whiteWins, games - blackWins - whiteWins,
+				games == 0 ? 0 : (double) moves / games, games == 0 ? 0 : (double) millis / games);
+	}
+
+	/**
+	 * Moves on to the next game
+	 *
+	 * @return False when there are no more games
+	 */
+	public boolean next() throws IOException
+	{
+		if (position == fileSize)
+		{
+			fixedOffset = -1;
+			return false;
+		}
+
+		map(position, 2);
+		int length = buffer.getShort((int) (position - bufferStart)) & 0xFFFF;
+		map(position, 2 + length);
+
+		int offset = (int) (position - bufferStart) + 2;
+		int end = offset + length;
+		fixedOffset = -1;
+		blackOffset = offset + GameRecord.FIXED_BYTES;
+		if (blackOffset >= end)
+		{
+			throw new IOException("Corrupt game record at byte " + position);
+		}
+		whiteOffset = blackOffset + 1 + (buffer.get(blackOffset) & 0xFF);
+		if (whiteOffset >= end)
+		{
+			throw new IOException("Corrupt game record at byte " + position);
+		}
+		movesOffset = whiteOffset + 1 + (buffer.get(whiteOffset) & 0xFF);
+		if (movesOffset >= end || movesOffset + 1 + (buffer.get(movesOffset) & 0xFF) != end)
+		{
+			throw new IOException("Corrupt game record at byte " + position);
+		}
+		fixedOffset = offset;
+
+		position += 2 + length;
+		return true;
+	}
+
+	/**
+	 * Maps the window holding part of the file, if the current one does not
+	 *
+	 * @param start Where the part starts
+	 * @param bytes The length of the part
+	 */
+	private void map(long start, int bytes) throws IOException
+	{
+		if (start + bytes > fileSize)
+		{
+			throw new IOException("Game record file is truncated at byte " + start);
+		}
+		if (buffer != null && start >= bufferStart && start + bytes <= bufferStart + buffer.capacity())
+		{
+			return;
+		}
+
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, fileSize - start));
+		bufferStart = start;
+	}
+
+	/**
+	 * Copies the current game into a record, for replaying or writing elsewhere
+	 *
+	 * @param record The record to fill in
+	 */
+	public void copyTo(GameRecord record)
+	{
+		record.start(getBlackName(), getWhiteName(), getStartMillis());
+		for (int i = 0; i < getMoveCount(); i++)
+		{
+			record.addMove(getMove(i));
+		}
+		record.finish(getResult(), getDurationMillis());
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	/** -------------------------- */
+	/** Fields of the current game */
+	/** -------------------------- */
+
+	public long getStartMillis()
+	{
+		return buffer.getLong(current());
+	}
+
+	public int getDurationMillis()
+	{
+		return buffer.getInt(current() + 8);
+	}
+
+	/**
+	 * Gets black's discs minus white's discs at the end
+	 */
+	public int getResult()
+	{
+		return buffer.get(current() + 12);
+	}
+
+	/**
+	 * Gets the name of the player with black, decoding it
+	 */
+	public String getBlackName()
+	{
+		return name(blackOffset);
+	}
+
+	/**
+	 * Gets the name of the player with white, decoding it
+	 */
+	public String getWhiteName()
+	{
+		return name(whiteOffset);
+	}
+
+	public int getMoveCount()
+	{
+		return buffer.get(movesOffset) & 0xFF;
+	}
+
+	public int getMove(int index)
+	{
+		return buffer.get(movesOffset + 1 + index);
+	}
+
+	/**
+	 * Gets the offset of the current game's fields, failing if there is no current game
+	 */
+	private int current()
+	{
+		if (fixedOffset < 0)
+		{
+			throw new IllegalStateException("No current game");
+		}
+		return fixedOffset;
+	}
+
+	/**
+	 * Decodes a length prefixed name
+	 */
+	private String name(int offset)
+	{
+		current();
+		byte[] bytes = new byte[buffer.get(offset) & 0xFF];
+		for (int i = 0; i < bytes.length; i++)
+		{
+			bytes[i] = buffer.get(offset + 1 + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,154 @@
+package game.reversi.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Appends game records to a file (see GameRecord for the format)
+ * <p>
+ * Records go through one large buffer, and each player name is encoded once
+ * and kept, so writing a game allocates nothing. Writes are synchronized, so
+ * one writer can be shared by every self-play worker
+ */
+public class GameRecordWriter implements Closeable
+{
+	/**
+	 * Size of the output buffer, in bytes
+	 */
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	/**
+	 * The file
+	 */
+	private final DataOutputStream out;
+
+	/**
+	 * Encoded player names
+	 */
+	private final Map<String, byte[]> names = new HashMap<>();
+
+	/**
+	 * Games written by this writer
+	 */
+	private long games;
+
+	/**
+	 * Opens the output
+	 *
+	 * @param out The file, positioned at its end
+	 */
+	private GameRecordWriter(DataOutputStream out)
+	{
+		this.out = out;
+	}
+
+	/**
+	 * Opens a file for appending, creating it if it does not exist
+	 *
+	 * @param file The file
+	 *
+	 * @return The writer
+	 */
+	public static GameRecordWriter open(Path file) throws IOException
+	{
+		boolean exists = Files.exists(file) && Files.size(file) > 0;
+		if (exists)
+		{
+			/** Only add to a file of the same format */
+			try (DataInputStream in = new DataInputStream(Files.newInputStream(file)))
+			{
+				if (in.readInt() != GameRecord.MAGIC)
+				{
+					throw new IOException("Not a game record file");
+				}
+				int version = in.readInt();
+				if (version != GameRecord.VERSION)
+				{
+					throw new IOException("Unsupported game record version: " + version);
+				}
+			}
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_BYTES));
+		if (!exists)
+		{
+			out.writeInt(GameRecord.MAGIC);
+			out.writeInt(GameRecord.VERSION);
+		}
+		return new GameRecordWriter(out);
+	}
+
+	/**
+	 * Appends a game
+	 *
+	 * @param record The game, which can be reused once this returns
+	 */
+	public synchronized void write(GameRecord record) throws IOException
+	{
+		byte[] black = encode(record.getBlackName());
+		byte[] white = encode(record.getWhiteName());
+		int moveCount = record.getMoveCount();
+
+		out.writeShort(GameRecord.FIXED_BYTES + 1 + black.length + 1 + white.length + 1 + moveCount);
+		out.writeLong(record.getStartMillis());
+		out.writeInt(record.getDurationMillis());
+		out.writeByte(record.getResult());
+		out.writeByte(black.length);
+		out.write(black);
+		out.writeByte(white.length);
+		out.write(white);
+		out.writeByte(moveCount);
+		out.write(record.moves(), 0, moveCount);
+		games++;
+	}
+
+	/**
+	 * Gets a player name as UTF-8, encoding it the first time it is seen
+	 */
+	private byte[] encode(String name)
+	{
+		byte[] bytes = names.get(name);
+		if (bytes == null)
+		{
+			bytes = name.getBytes(StandardCharsets.UTF_8);
+			if (bytes.length > GameRecord.MAX_NAME_BYTES)
+			{
+				throw new IllegalArgumentException("Player name is too long: " + name);
+			}
+			names.put(name, bytes);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Gets the number of games written by this writer
+	 */
+	public synchronized long getGames()
+	{
+		return games;
+	}
+
+	/**
+	 * Writes out anything still buffered
+	 */
+	public synchronized void flush() throws IOException
+	{
+		out.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		out.close();
+	}
+}
@@ -0,0 +1,178 @@
+package game.reversi.engine;
+
+/**
+ * One hosted 8x8 game, just the primitive state of the board
+ * <p>
+ * A session is owned by one event loop of a SessionHost and only touched on
+ * that loop's thread, so it has no locks or volatile fields. It is a few
+ * dozen bytes, so a host can keep many thousands of them
+ */
+public final class GameSession
+{
+	/**
+	 * Player index of a side whose moves come from outside, through SessionHost.play
+	 */
+	static final byte EXTERNAL = -1;
+
+	/**
+	 * The id given out by the host
+	 */
+	private final long id;
+
+	/**
+	 * The discs of each colour
+	 */
+	private long black;
+	private long white;
+
+	/**
+	 * The colour to move, BoardState.EMPTY once the game is over
+	 */
+	private byte toMove;
+
+	/**
+	 * Which of the loop's players plays each colour, or EXTERNAL
+	 */
+	private final byte blackPlayer;
+	private final byte whitePlayer;
+
+	/**
+	 * Moves made so far
+	 */
+	private short ply;
+
+	/**
+	 * Creates a session at the starting position
+	 *
+	 * @param id          The id given out by the host
+	 * @param blackPlayer The loop's index of the black player, or EXTERNAL
+	 * @param whitePlayer The loop's index of the white player, or EXTERNAL
+	 */
+	GameSession(long id, byte blackPlayer, byte whitePlayer)
+	{
+		this.id = id;
+		this.black = Bitboard.START_BLACK;
+		this.white = Bitboard.START_WHITE;
+		this.toMove = BoardState.BLACK;
+		this.blackPlayer = blackPlayer;
+		this.whitePlayer = whitePlayer;
+	}
+
+	/**
+	 * Plays a move for the side to move, then passes the turn on, or keeps it
+	 * if the other side has no move, or ends the game if neither has
+	 *
+	 * @param square The square to play
+	 *
+	 * @return The number of discs flipped, 0 if the move was illegal and nothing changed
+	 */
+	int play(int square)
+	{
+		if (toMove == BoardState.EMPTY || square < 0 || square >= Bitboard.SQUARES
+				    || (Bitboard.legalMoves(getPlayer(), getOpponent()) & (1L << square)) == 0)
+		{
+			return 0;
+		}
+
+		long flips = Bitboard.flips(getPlayer(), getOpponent(), square);
+		if (toMove == BoardState.BLACK)
+		{
+			black |= flips | (1L << square);
+			white ^= flips;
+		} else
+		{
+			white |= flips | (1L << square);
+			black ^= flips;
+		}
+		ply++;
+
+		byte other = BoardState.opponent(toMove);
+		if (Bitboard.legalMoves(discs(other), discs(toMove)) != 0)
+		{
+			toMove = other;
+		} else if (Bitboard.legalMoves(getPlayer(), getOpponent()) == 0)
+		{
+			toMove = BoardState.EMPTY;
+		}
+		return Long.bitCount(flips);
+	}
+
+	/**
+	 * Gets the loop's index of the player for the side to move
+	 */
+	byte currentPlayer()
+	{
+		return toMove == BoardState.BLACK ? blackPlayer : whitePlayer;
+	}
+
+	/**
+	 * Gets the discs of a colour
+	 */
+	private long discs(byte color)
+	{
+		return color == BoardState.BLACK ? black : white;
+	}
+
+	/** ------- */
+	/** Getters */
+	/** ------- */
+
+	public long getId()
+	{
+		return id;
+	}
+
+	public long getBlack()
+	{
+		return black;
+	}
+
+	public long getWhite()
+	{
+		return white;
+	}
+
+	/**
+	 * Gets the colour to move
+	 *
+	 * @return BoardState.BLACK or WHITE, or BoardState.EMPTY once the game is over
+	 */
+	public byte getToMove()
+	{
+		return toMove;
+	}
+
+	/**
+	 * Gets the discs of the side to move
+	 */
+	public long getPlayer()
+	{
+		return toMove == BoardState.WHITE ? white : black;
+	}
+
+	/**
+	 * Gets the discs of the side waiting
+	 */
+	public long getOpponent()
+	{
+		return toMove == BoardState.WHITE ? black : white;
+	}
+
+	public int getPly()
+	{
+		return ply;
+	}
+
+	public boolean isOver()
+	{
+		return toMove == BoardState.EMPTY;
+	}
+
+	/**
+	 * Gets black's discs minus white's discs
+	 */
+	public int getResult()
+	{
+		return Long.bitCount(black) - Long.bitCount(white);
+	}
+}
@@ -0,0 +1,59 @@
+package game.reversi.engine;
+
+import java.util.Random;
+
+/**
+ * Plays the move which flips the most discs, breaking ties with a coin flip,
+ * the same as the greedy button in the game
+ */
+public class GreedyPlayer implements Player
+{
+	/**
+	 * Coin for breaking ties
+	 */
+	private final Random random;
+
+	/**
+	 * Creates a greedy player
+	 *
+	 * @param seed Seed for breaking ties
+	 */
+	public GreedyPlayer(long seed)
+	{
+		this.random = new Random(seed);
+	}
+
+	@Override
+	public int chooseMove(long player, long opponent)
+	{
+		int bestNoFlipped = -1;
+		int bestSquare = Search.NO_MOVE;
+
+		long moves = Bitboard.legalMoves(player, opponent);
+		while (moves != 0)
+		{
+			int square = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+
+			int noFlipped = Long.bitCount(Bitboard.flips(player, opponent, square));
+			if (noFlipped > bestNoFlipped || (noFlipped == bestNoFlipped && random.nextBoolean()))
+			{
+				bestNoFlipped = noFlipped;
+				bestSquare = square;
+			}
+		}
+		return bestSquare;
+	}
+
+	@Override
+	public void newGame(long seed)
+	{
+		random.setSeed(seed);
+	}
+
+	@Override
+	public String getName()
+	{
+		return "greedy";
+	}
+}
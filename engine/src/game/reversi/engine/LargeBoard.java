@@ -0,0 +1,467 @@
+package game.reversi.engine;
+
+/**
+ * A board bigger than 8x8, stored as one bit mask per row
+ * <p>
+ * Bit {@code col} of {@code black[row]} is set for a black disc. Legal moves
+ * are generated a whole row word at a time, like a bitboard: lines of opponent
+ * discs next to a player disc are followed to the empty square past their end.
+ * Going down the board the lines coming from the row above are known before
+ * each row, so one pass down and one pass up finish the six directions which
+ * change row, and the two along a row are filled within the row word in a fixed
+ * four doubling steps. Moves are kept on an undo stack with the rows they
+ * flipped and the mover's legal moves before them, and the legal moves of each
+ * colour are cached until the board changes, like BoardState
+ */
+public final class LargeBoard implements Board
+{
+	/**
+	 * The eight directions as a row and column step, used to find flips
+	 */
+	private static final int[] ROW_DIRS = {0, 0, 1, -1, 1, 1, -1, -1};
+	private static final int[] COL_DIRS = {1, -1, 0, 0, 1, -1, 1, -1};
+
+	/**
+	 * The number of rows and columns and the mask of the columns in a row
+	 */
+	private final int size;
+	private final int rowMask;
+
+	/**
+	 * The discs of each colour, a mask per row
+	 */
+	private final int[] black;
+	private final int[] white;
+
+	/**
+	 * Legal moves of each colour, each only valid while its flag is set
+	 */
+	private final int[] blackMoves;
+	private final int[] whiteMoves;
+	private int blackMobility;
+	private int whiteMobility;
+	private boolean blackMovesKnown;
+	private boolean whiteMovesKnown;
+
+	/**
+	 * Undo stack, one entry per move, with the mover's legal moves before it so
+	 * taking a move back does not need them worked out again. Entries above ply
+	 * are moves taken back which can be redone, up to redoPly
+	 */
+	private final int[] squares;
+	private final byte[] colors;
+	private final int[][] flipped;
+	private final int[][] movesBefore;
+	private final int[] mobilityBefore;
+	private int ply;
+	private int redoPly;
+
+	/**
+	 * Scratch rows for flipping
+	 */
+	private final int[] flips;
+
+	/**
+	 * Creates a board set up at the starting position
+	 *
+	 * @param size The number of rows and columns, even, up to 16
+	 */
+	public LargeBoard(int size)
+	{
+		if (size < MIN_SIZE || size > MAX_SIZE || size % 2 != 0)
+		{
+			throw new IllegalArgumentException("Unsupported board size: " + size);
+		}
+		this.size = size;
+		this.rowMask = (1 << size) - 1;
+
+		this.black = new int[size];
+		this.white = new int[size];
+		this.blackMoves = new int[size];
+		this.whiteMoves = new int[size];
+		this.squares = new int[size * size];
+		this.colors = new byte[size * size];
+		this.flipped = new int[size * size][size];
+		this.movesBefore = new int[size * size][size];
+		this.mobilityBefore = new int[size * size];
+		this.flips = new int[size];
+
+		reset();
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public void reset()
+	{
+		for (int row = 0; row < size; row++)
+		{
+			black[row] = 0;
+			white[row] = 0;
+		}
+
+		int middle = size / 2;
+		black[middle] |= 1 << (middle - 1);
+		black[middle - 1] |= 1 << middle;
+		white[middle - 1] |= 1 << (middle - 1);
+		white[middle] |= 1 << middle;
+
+		blackMovesKnown = false;
+		whiteMovesKnown = false;
+		ply = 0;
+		redoPly = 0;
+	}
+
+	@Override
+	public byte get(int row, int col)
+	{
+		if (((black[row] >>> col) & 1) != 0)
+		{
+			return BoardState.BLACK;
+		} else if (((white[row] >>> col) & 1) != 0)
+		{
+			return BoardState.WHITE;
+		} else
+		{
+			return BoardState.EMPTY;
+		}
+	}
+
+	@Override
+	public int flipCount(byte color, int row, int col)
+	{
+		if (((legalMoves(color)[row] >>> col) & 1) == 0)
+		{
+			return 0;
+		}
+		return findFlips(discs(color), discs(BoardState.opponent(color)), row, col);
+	}
+
+	@Override
+	public int play(byte color, int row, int col)
+	{
+		int count = flipCount(color, row, col);
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		/** flips still holds what flipCount found, and the mover's moves are known */
+		int[] moved = flipped[ply];
+		System.arraycopy(flips, 0, moved, 0, size);
+		System.arraycopy(color == BoardState.BLACK ? blackMoves : whiteMoves, 0, movesBefore[ply], 0, size);
+		mobilityBefore[ply] = color == BoardState.BLACK ? blackMobility : whiteMobility;
+		squares[ply] = row * size + col;
+		colors[ply] = color;
+		ply++;
+		redoPly = ply;
+
+		place(color, row, col, moved);
+		return count;
+	}
+
+	@Override
+	public int mobility(byte color)
+	{
+		legalMoves(color);
+		return color == BoardState.BLACK ? blackMobility : whiteMobility;
+	}
+
+	@Override
+	public boolean hasMoves(byte color)
+	{
+		return mobility(color) != 0;
+	}
+
+	@Override
+	public byte nextToMove(byte mover)
+	{
+		byte other = BoardState.opponent(mover);
+		if (hasMoves(other))
+		{
+			return other;
+		} else if (hasMoves(mover))
+		{
+			return mover;
+		} else
+		{
+			return BoardState.EMPTY;
+		}
+	}
+
+	@Override
+	public int count(byte color)
+	{
+		int[] discs = discs(color);
+		int count = 0;
+		for (int row = 0; row < size; row++)
+		{
+			count += Integer.bitCount(discs[row]);
+		}
+		return count;
+	}
+
+	@Override
+	public boolean undo()
+	{
+		if (ply == 0)
+		{
+			return false;
+		}
+
+		ply--;
+		byte color = colors[ply];
+		int[] mover = discs(color);
+		int[] other = discs(BoardState.opponent(color));
+		int[] moved = flipped[ply];
+		for (int row = 0; row < size; row++)
+		{
+			mover[row] &= ~moved[row];
+			other[row] |= moved[row];
+		}
+		mover[squares[ply] / size] &= ~(1 << (squares[ply] % size));
+
+		/** Back to the position the mover's moves were saved in */
+		if (color == BoardState.BLACK)
+		{
+			System.arraycopy(movesBefore[ply], 0, blackMoves, 0, size);
+			blackMobility = mobilityBefore[ply];
+			blackMovesKnown = true;
+			whiteMovesKnown = false;
+		} else
+		{
+			System.arraycopy(movesBefore[ply], 0, whiteMoves, 0, size);
+			whiteMobility = mobilityBefore[ply];
+			whiteMovesKnown = true;
+			blackMovesKnown = false;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean redo()
+	{
+		if (ply == redoPly)
+		{
+			return false;
+		}
+
+		place(colors[ply], squares[ply] / size, squares[ply] % size, flipped[ply]);
+		ply++;
+		return true;
+	}
+
+	@Override
+	public int getPly()
+	{
+		return ply;
+	}
+
+	@Override
+	public byte getMoveColor(int index)
+	{
+		return colors[index];
+	}
+
+	/**
+	 * Gets the legal moves of a colour, working them out if the board changed
+	 *
+	 * @param color The colour to move
+	 *
+	 * @return A mask per row of the legal squares, not to be changed
+	 */
+	private int[] legalMoves(byte color)
+	{
+		if (color == BoardState.BLACK)
+		{
+			if (!blackMovesKnown)
+			{
+				blackMobility = generateMoves(black, white, blackMoves);
+				blackMovesKnown = true;
+			}
+			return blackMoves;
+		}
+
+		if (!whiteMovesKnown)
+		{
+			whiteMobility = generateMoves(white, black, whiteMoves);
+			whiteMovesKnown = true;
+		}
+		return whiteMoves;
+	}
+
+	/**
+	 * Works out every legal move
+	 * <p>
+	 * For each direction which changes row, a line is the opponent discs which
+	 * have a player disc or more of the line just behind them. Going down, the
+	 * lines in a row only depend on the row above, so each row is finished in
+	 * turn, and an empty square just past a line from the row above is a move.
+	 * Going up is the same from the bottom. Along a row the lines are found by
+	 * doubling: the opponent discs which follow the player's are spread by 1, 2,
+	 * 4 and 8 squares, enough for any line on a board of up to 16 columns
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param moves    Filled with a mask per row of the legal squares
+	 *
+	 * @return The number of legal moves
+	 */
+	private int generateMoves(int[] player, int[] opponent, int[] moves)
+	{
+		/** Lines ending in the last row done, going straight, left and right */
+		int straight = 0;
+		int left = 0;
+		int right = 0;
+		int above = 0;
+
+		for (int row = 0; row < size; row++)
+		{
+			int empty = ~(player[row] | opponent[row]) & rowMask;
+			int moveRow = (straight | (left >>> 1) | ((right << 1) & rowMask)) & empty;
+			moveRow |= alongRow(player[row], opponent[row], empty);
+
+			straight = (above | straight) & opponent[row];
+			left = ((above | left) >>> 1) & opponent[row];
+			right = ((above | right) << 1) & opponent[row];
+			above = player[row];
+			moves[row] = moveRow;
+		}
+
+		straight = 0;
+		left = 0;
+		right = 0;
+		above = 0;
+		int count = 0;
+		for (int row = size - 1; row >= 0; row--)
+		{
+			int empty = ~(player[row] | opponent[row]) & rowMask;
+			int moveRow = moves[row] | ((straight | (left >>> 1) | ((right << 1) & rowMask)) & empty);
+
+			straight = (above | straight) & opponent[row];
+			left = ((above | left) >>> 1) & opponent[row];
+			right = ((above | right) << 1) & opponent[row];
+			above = player[row];
+			moves[row] = moveRow;
+			count += Integer.bitCount(moveRow);
+		}
+		return count;
+	}
+
+	/**
+	 * Works out the moves along one row, in both directions
+	 *
+	 * @param player   The player's discs in the row
+	 * @param opponent The opponent's discs in the row
+	 * @param empty    The empty squares in the row
+	 *
+	 * @return The squares of the row which end a line
+	 */
+	private int alongRow(int player, int opponent, int empty)
+	{
+		/** Spread the player's discs over the opponent discs after them, doubling the distance each step */
+		int up = player;
+		int through = opponent;
+		up |= through & (up << 1);
+		through &= through << 1;
+		up |= through & (up << 2);
+		through &= through << 2;
+		up |= through & (up << 4);
+		through &= through << 4;
+		up |= through & (up << 8);
+
+		int down = player;
+		through = opponent;
+		down |= through & (down >>> 1);
+		through &= through >>> 1;
+		down |= through & (down >>> 2);
+		through &= through >>> 2;
+		down |= through & (down >>> 4);
+		through &= through >>> 4;
+		down |= through & (down >>> 8);
+
+		return (((up & opponent) << 1) | ((down & opponent) >>> 1)) & empty;
+	}
+
+	/**
+	 * Works out the discs a move flips into the flips scratch rows
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param row      The row to play
+	 * @param col      The column to play
+	 *
+	 * @return The number of discs flipped
+	 */
+	private int findFlips(int[] player, int[] opponent, int row, int col)
+	{
+		for (int r = 0; r < size; r++)
+		{
+			flips[r] = 0;
+		}
+
+		int count = 0;
+		for (int dir = 0; dir < ROW_DIRS.length; dir++)
+		{
+			int r = row + ROW_DIRS[dir];
+			int c = col + COL_DIRS[dir];
+			int length = 0;
+			while (r >= 0 && r < size && c >= 0 && c < size && ((opponent[r] >>> c) & 1) != 0)
+			{
+				r += ROW_DIRS[dir];
+				c += COL_DIRS[dir];
+				length++;
+			}
+
+			/** The line counts if a player disc closes it */
+			if (length > 0 && r >= 0 && r < size && c >= 0 && c < size && ((player[r] >>> c) & 1) != 0)
+			{
+				for (int i = 0; i < length; i++)
+				{
+					r -= ROW_DIRS[dir];
+					c -= COL_DIRS[dir];
+					flips[r] |= 1 << c;
+				}
+				count += length;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Places a disc and flips discs, without touching the undo stack
+	 */
+	private void place(byte color, int row, int col, int[] moved)
+	{
+		blackMovesKnown = false;
+		whiteMovesKnown = false;
+		int[] mover = discs(color);
+		int[] other = discs(BoardState.opponent(color));
+		for (int r = 0; r < size; r++)
+		{
+			mover[r] |= moved[r];
+			other[r] &= ~moved[r];
+		}
+		mover[row] |= 1 << col;
+	}
+
+	/**
+	 * Gets the discs of a colour
+	 */
+	private int[] discs(byte color)
+	{
+		switch (color)
+		{
+			case BoardState.WHITE:
+				return white;
+			case BoardState.BLACK:
+				return black;
+			default:
+				throw new IllegalArgumentException("Unknown color: " + color);
+		}
+	}
+}
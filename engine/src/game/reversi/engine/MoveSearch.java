@@ -0,0 +1,59 @@
+package game.reversi.engine;
+
+/**
+ * A search which picks a move for the side to move
+ */
+public interface MoveSearch
+{
+	/**
+	 * Searches a position until the time budget runs out
+	 *
+	 * @param player       The discs of the player to move
+	 * @param opponent     The discs of the opponent
+	 * @param timeBudgetMs How long the search may take, in milliseconds
+	 *
+	 * @return The square of the best move found, or Search.NO_MOVE if the player must pass
+	 */
+	int findBestMove(long player, long opponent, long timeBudgetMs);
+
+	/**
+	 * Searches a position until the time budget runs out or a depth is reached
+	 *
+	 * @param player       The discs of the player to move
+	 * @param opponent     The discs of the opponent
+	 * @param timeBudgetMs How long the search may take, in milliseconds
+	 * @param maxDepth     The deepest search to try
+	 *
+	 * @return The square of the best move found, or Search.NO_MOVE if the player must pass
+	 */
+	int findBestMove(long player, long opponent, long timeBudgetMs, int maxDepth);
+
+	/**
+	 * Sets how many empty squares a position needs to have at most to be solved
+	 * exactly, a fixed depth search also needs to reach the end of the game and
+	 * a timed one needs enough time
+	 *
+	 * @param endgameEmpties The number of empty squares, 0 to never solve
+	 */
+	void setEndgameEmpties(int endgameEmpties);
+
+	/**
+	 * Forgets everything kept from earlier searches
+	 */
+	void clear();
+
+	/**
+	 * Gets the number of nodes visited by the last search
+	 */
+	long getNodes();
+
+	/**
+	 * Gets the depth of the deepest iteration the last search finished
+	 */
+	int getCompletedDepth();
+
+	/**
+	 * Gets the score of the move returned by the last search
+	 */
+	int getBestScore();
+}
@@ -0,0 +1,212 @@
+package game.reversi.engine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read only opening book, memory mapped from a file
+ * <p>
+ * The file is a header followed by fixed size entries sorted by key, one per
+ * position and move: the Zobrist hash of the canonical form of the position
+ * (see Symmetry), the move in the canonical frame, the number of games it was
+ * played in and the points it scored, 2 for a win and 1 for a draw. Lookups
+ * binary search the mapping directly, so processes opening the same book share
+ * the page cache and nothing is read until it is needed
+ */
+public class OpeningBook
+{
+	/**
+	 * Header: magic "RVBK", version and number of entries
+	 */
+	static final int MAGIC = 0x5256424B;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 12;
+
+	/**
+	 * Entry: key (8), move (1), games (4), points (4)
+	 */
+	static final int ENTRY_BYTES = 17;
+
+	/**
+	 * Moves played in fewer games than this are ignored by default
+	 */
+	public static final int DEFAULT_MIN_GAMES = 2;
+
+	/**
+	 * The mapped file
+	 */
+	private final MappedByteBuffer buffer;
+	private final int size;
+
+	/**
+	 * Moves played in fewer games than this are ignored
+	 */
+	private int minGames = DEFAULT_MIN_GAMES;
+
+	/**
+	 * Maps a book file
+	 *
+	 * @param buffer The whole file
+	 */
+	private OpeningBook(MappedByteBuffer buffer) throws IOException
+	{
+		if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+		{
+			throw new IOException("Not an opening book");
+		}
+		if (buffer.getInt(4) != VERSION)
+		{
+			throw new IOException("Unsupported opening book version: " + buffer.getInt(4));
+		}
+		this.size = buffer.getInt(8);
+		if ((long) HEADER_BYTES + (long) size * ENTRY_BYTES > buffer.capacity())
+		{
+			throw new IOException("Opening book is truncated");
+		}
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Opens a book file
+	 *
+	 * @param file The file to map
+	 *
+	 * @return The book
+	 */
+	public static OpeningBook open(Path file) throws IOException
+	{
+		/** The mapping stays valid after the channel is closed */
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Hashes the canonical form of a position, the key entries are sorted by
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param symmetry The symmetry giving the canonical form
+	 *
+	 * @return The key
+	 */
+	static long key(long player, long opponent, int symmetry)
+	{
+		return Zobrist.hash(Symmetry.transform(player, symmetry), Symmetry.transform(opponent, symmetry));
+	}
+
+	/**
+	 * Finds the book move with the best score for a position
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 *
+	 * @return The square to play, or Search.NO_MOVE if the book has nothing for the position
+	 */
+	public int lookup(long player, long opponent)
+	{
+		int symmetry = Symmetry.canonical(player, opponent);
+		long key = key(player, opponent, symmetry);
+
+		int bestMove = Search.NO_MOVE;
+		int bestGames = 0;
+		int bestPoints = 0;
+		for (int index = firstIndex(key); index < size && key(index) == key; index++)
+		{
+			int games = games(index);
+			int points = points(index);
+			if (games < minGames)
+			{
+				continue;
+			}
+
+			/** Best average points, compared without dividing, then most played */
+			long compare = (long) points * bestGames - (long) bestPoints * games;
+			if (bestMove == Search.NO_MOVE || compare > 0 || (compare == 0 && games > bestGames))
+			{
+				bestMove = move(index);
+				bestGames = games;
+				bestPoints = points;
+			}
+		}
+
+		if (bestMove == Search.NO_MOVE)
+		{
+			return Search.NO_MOVE;
+		}
+
+		/** A hash collision could give a move from a different position */
+		int square = Symmetry.inverseSquare(bestMove, symmetry);
+		return (Bitboard.legalMoves(player, opponent) & (1L << square)) != 0 ? square : Search.NO_MOVE;
+	}
+
+	/**
+	 * Binary searches for the first entry of a key
+	 *
+	 * @param key The key
+	 *
+	 * @return The index of the first entry with the key, or of the first bigger one
+	 */
+	private int firstIndex(long key)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (key(mid) < key)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Sets how many games a move needs to have been played in to be used
+	 *
+	 * @param minGames The number of games
+	 */
+	public void setMinGames(int minGames)
+	{
+		this.minGames = minGames;
+	}
+
+	/**
+	 * Gets the number of entries
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Entry fields, for merging a book into a new one
+	 */
+	long key(int index)
+	{
+		return buffer.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+	}
+
+	int move(int index)
+	{
+		return buffer.get(HEADER_BYTES + index * ENTRY_BYTES + 8);
+	}
+
+	int games(int index)
+	{
+		return buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 9);
+	}
+
+	int points(int index)
+	{
+		return buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 13);
+	}
+}
@@ -0,0 +1,275 @@
+package game.reversi.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Grows an opening book from self-play games
+ * <p>
+ * Each game starts with a few random moves for variety and is then played out
+ * by the given player on both sides. The opening moves of every game are
+ * added to the book with the result for the side that played them. Positions
+ * are stored in their canonical form, so the 8 symmetric versions of a
+ * position share their entries. An existing book file is merged in first
+ * <p>
+ * Usage: OpeningBookBuilder file [--games n] [--plies n] [--random-plies n] [--player spec] [--seed n]
+ */
+public class OpeningBookBuilder
+{
+	/**
+	 * Points for each result, from the side that moved
+	 */
+	private static final int WIN_POINTS = 2;
+	private static final int DRAW_POINTS = 1;
+
+	/**
+	 * Statistics of each move of each canonical position, by key then square
+	 */
+	private final TreeMap<Long, Map<Integer, int[]>> entries = new TreeMap<>();
+
+	/**
+	 * How many opening plies of each game are added
+	 */
+	private final int plies;
+
+	/**
+	 * Constructor
+	 *
+	 * @param plies How many opening plies of each game are added to the book
+	 */
+	public OpeningBookBuilder(int plies)
+	{
+		this.plies = plies;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1)
+		{
+			System.out.println(
+					"Usage: OpeningBookBuilder file [--games n] [--plies n] [--random-plies n] [--player spec] [--seed n]");
+			return;
+		}
+
+		Path file = Paths.get(args[0]);
+		int games = 100;
+		int plies = 12;
+		int randomPlies = 4;
+		String playerSpec = "depth:4";
+		long seed = 1;
+		for (int i = 1; i < args.length; i++)
+		{
+			switch (args[i])
+			{
+				case "--games":
+					games = Integer.parseInt(args[++i]);
+					break;
+				case "--plies":
+					plies = Integer.parseInt(args[++i]);
+					break;
+				case "--random-plies":
+					randomPlies = Integer.parseInt(args[++i]);
+					break;
+				case "--player":
+					playerSpec = args[++i];
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+		if (Files.exists(file))
+		{
+			builder.add(OpeningBook.open(file));
+		}
+
+		Random random = new Random(seed);
+		Player black = Tournament.createPlayer(playerSpec, seed);
+		Player white = Tournament.createPlayer(playerSpec, seed + 1);
+		long start = System.nanoTime();
+		for (int game = 0; game < games; game++)
+		{
+			builder.playGame(black, white, random, randomPlies);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		int written = builder.write(file);
+		System.out.printf("%d games of %s in %.2fs, %d positions, %d entries written to %s%n",
+				games, playerSpec, seconds, builder.entries.size(), written, file);
+	}
+
+	/**
+	 * Merges in every entry of an existing book
+	 *
+	 * @param book The book
+	 */
+	public void add(OpeningBook book)
+	{
+		for (int index = 0; index < book.size(); index++)
+		{
+			int[] stats = stats(book.key(index), book.move(index));
+			stats[0] += book.games(index);
+			stats[1] += book.points(index);
+		}
+	}
+
+	/**
+	 * Adds the result of one move
+	 *
+	 * @param player   The discs of the side which moved
+	 * @param opponent The discs of the side waiting
+	 * @param square   The move
+	 * @param points   The points the mover finished with, 0 - 2
+	 */
+	public void add(long player, long opponent, int square, int points)
+	{
+		int symmetry = Symmetry.canonical(player, opponent);
+		int[] stats = stats(OpeningBook.key(player, opponent, symmetry), Symmetry.transformSquare(square, symmetry));
+		stats[0]++;
+		stats[1] += points;
+	}
+
+	/**
+	 * Plays one self-play game and adds its opening to the book
+	 *
+	 * @param black       The black player
+	 * @param white       The white player
+	 * @param random      Chooses the random opening moves
+	 * @param randomPlies How many moves are random before the players take over
+	 */
+	public void playGame(Player black, Player white, Random random, int randomPlies)
+	{
+		long[] players = new long[plies];
+		long[] opponents = new long[plies];
+		int[] squares = new int[plies];
+		boolean[] blackMoved = new boolean[plies];
+
+		long player = Bitboard.START_BLACK;
+		long opponent = Bitboard.START_WHITE;
+		boolean blackToMove = true;
+		int ply = 0;
+
+		while (true)
+		{
+			long moves = Bitboard.legalMoves(player, opponent);
+			if (moves == 0)
+			{
+				if (Bitboard.legalMoves(opponent, player) == 0)
+				{
+					break;
+				}
+				long swap = player;
+				player = opponent;
+				opponent = swap;
+				blackToMove = !blackToMove;
+				continue;
+			}
+
+			int square;
+			if (ply < randomPlies)
+			{
+				for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+				{
+					moves &= moves - 1;
+				}
+				square = Long.numberOfTrailingZeros(moves);
+			} else
+			{
+				square = (blackToMove ? black : white).chooseMove(player, opponent);
+			}
+
+			if (ply < plies)
+			{
+				players[ply] = player;
+				opponents[ply] = opponent;
+				squares[ply] = square;
+				blackMoved[ply] = blackToMove;
+			}
+			ply++;
+
+			long flips = Bitboard.flips(player, opponent, square);
+			long next = opponent ^ flips;
+			opponent = player | flips | (1L << square);
+			player = next;
+			blackToMove = !blackToMove;
+		}
+
+		int blackDiff = blackToMove ? Long.bitCount(player) - Long.bitCount(opponent)
+				                : Long.bitCount(opponent) - Long.bitCount(player);
+		for (int i = 0; i < Math.min(ply, plies); i++)
+		{
+			int diff = blackMoved[i] ? blackDiff : -blackDiff;
+			add(players[i], opponents[i], squares[i], diff > 0 ? WIN_POINTS : diff == 0 ? DRAW_POINTS : 0);
+		}
+	}
+
+	/**
+	 * Writes the book, replacing the file once it is complete
+	 *
+	 * @param file The file to write
+	 *
+	 * @return The number of entries written
+	 */
+	public int write(Path file) throws IOException
+	{
+		int count = 0;
+		for (Map<Integer, int[]> moves : entries.values())
+		{
+			count += moves.size();
+		}
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))
+		{
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeInt(OpeningBook.VERSION);
+			out.writeInt(count);
+			for (Map.Entry<Long, Map<Integer, int[]>> position : entries.entrySet())
+			{
+				for (Map.Entry<Integer, int[]> move : new TreeMap<>(position.getValue()).entrySet())
+				{
+					out.writeLong(position.getKey());
+					out.writeByte(move.getKey());
+					out.writeInt(move.getValue()[0]);
+					out.writeInt(move.getValue()[1]);
+				}
+			}
+		}
+		/** The old book may still be mapped, so it is replaced rather than written over */
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+		return count;
+	}
+
+	/**
+	 * Gets the games and points of a move, creating them if needed
+	 */
+	private int[] stats(long key, int square)
+	{
+		Map<Integer, int[]> moves = entries.get(key);
+		if (moves == null)
+		{
+			moves = new HashMap<>();
+			entries.put(key, moves);
+		}
+		int[] stats = moves.get(square);
+		if (stats == null)
+		{
+			stats = new int[2];
+			moves.put(square, stats);
+		}
+		return stats;
+	}
+}
@@ -0,0 +1,316 @@
+package game.reversi.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Alpha-beta search which splits the root moves across a fork-join pool
+ * <p>
+ * Each iteration searches the best move of the last iteration on the calling
+ * thread to set alpha, then searches every other root move in parallel with that
+ * alpha. A move only replaces the first one if it scores above alpha, where its
+ * score is exact, and ties go to the earlier root move, so at a fixed depth the
+ * chosen move and score do not depend on the number of threads or their timing.
+ * The shared transposition table is only trusted for entries of exactly the
+ * needed depth for the same reason, and its statistics are approximate
+ */
+public class ParallelSearch implements MoveSearch
+{
+	/**
+	 * Most legal moves of any reachable position
+	 */
+	private static final int MAX_ROOT_MOVES = 33;
+
+	/**
+	 * Worker pool, shared by every search this object makes
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Table shared by all workers, may be null
+	 */
+	private final TranspositionTable table;
+
+	/**
+	 * Pattern weights for every worker, or null for the square weights
+	 */
+	private final PatternWeights weights;
+
+	/**
+	 * Perfect play once few squares are left, solved on the calling thread
+	 */
+	private final EndgameSolver solver = new EndgameSolver();
+	private int endgameEmpties = Search.ENDGAME_EMPTIES;
+
+	/**
+	 * One search per root move so no counters are shared between threads, made
+	 * once and reused by every call
+	 */
+	private Search[] searches = new Search[0];
+
+	/**
+	 * Results of the last search
+	 */
+	private long nodes;
+	private int completedDepth;
+	private int bestScore;
+	private long solveNanos;
+
+	/**
+	 * Creates a parallel search
+	 *
+	 * @param threads The number of worker threads
+	 * @param table   The table shared by all workers, or null for none
+	 */
+	public ParallelSearch(int threads, TranspositionTable table)
+	{
+		this(threads, table, null);
+	}
+
+	/**
+	 * Creates a parallel search which evaluates with patterns
+	 *
+	 * @param threads The number of worker threads
+	 * @param table   The table shared by all workers, or null for none
+	 * @param weights The pattern weights, or null for the square weights
+	 */
+	public ParallelSearch(int threads, TranspositionTable table, PatternWeights weights)
+	{
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("Need at least one thread: " + threads);
+		}
+		this.pool = new ForkJoinPool(threads);
+		this.table = table;
+		this.weights = weights;
+		getSearches(MAX_ROOT_MOVES);
+	}
+
+	@Override
+	public int findBestMove(long player, long opponent, long timeBudgetMs)
+	{
+		return findBestMove(player, opponent, timeBudgetMs, Search.MAX_DEPTH);
+	}
+
+	@Override
+	public int findBestMove(final long player, final long opponent, long timeBudgetMs, int maxDepth)
+	{
+		nodes = 0;
+		completedDepth = 0;
+		bestScore = 0;
+		solveNanos = 0;
+		final long deadline = System.nanoTime() + timeBudgetMs * 1000000L;
+		if (table != null)
+		{
+			table.newSearch();
+		}
+
+		long moves = Bitboard.legalMoves(player, opponent);
+		if (moves == 0)
+		{
+			return Search.NO_MOVE;
+		}
+
+		final int[] rootMoves = new int[Long.bitCount(moves)];
+		for (int i = 0; i < rootMoves.length; i++)
+		{
+			rootMoves[i] = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+		}
+		final Search[] searches = getSearches(rootMoves.length);
+
+		int bestMove = rootMoves[0];
+		int empties = Long.bitCount(~(player | opponent));
+
+		/**
+		 * Try to solve the rest of the game in half the time left, if it should
+		 * finish in that, with the heuristic search as the fallback
+		 */
+		long now = System.nanoTime();
+		long solveTime = (deadline - now) / 2;
+		if (empties <= Math.min(Math.min(maxDepth, endgameEmpties), EndgameSolver.maxEmpties(solveTime)))
+		{
+			int move = solver.solveBestMove(player, opponent, now + solveTime);
+			nodes += solver.getNodes();
+			solveNanos = System.nanoTime() - now;
+			if (move != EndgameSolver.TIMED_OUT)
+			{
+				bestScore = Search.exactScore(solver.getBestScore());
+				completedDepth = empties;
+				return move;
+			}
+		}
+
+		for (int depth = 1; depth <= Math.min(maxDepth, empties); depth++)
+		{
+			/** The expected best move sets alpha for the rest */
+			searches[0].startClock(deadline);
+			final int alpha = searches[0].searchMove(player, opponent, rootMoves[0], depth, -Search.INFINITY,
+					Search.INFINITY);
+			nodes += searches[0].getNodes();
+			if (searches[0].isStopped())
+			{
+				break;
+			}
+
+			final int iterationDepth = depth;
+			List<Callable<Integer>> tasks = new ArrayList<>(rootMoves.length - 1);
+			for (int i = 1; i < rootMoves.length; i++)
+			{
+				final int index = i;
+				tasks.add(new Callable<Integer>()
+				{
+					@Override
+					public Integer call()
+					{
+						searches[index].startClock(deadline);
+						return searches[index].searchMove(player, opponent, rootMoves[index], iterationDepth,
+								alpha, Search.INFINITY);
+					}
+				});
+			}
+
+			List<Future<Integer>> results = pool.invokeAll(tasks);
+
+			/** Pick the best in root order, so ties always go the same way */
+			int iterationBest = 0;
+			int iterationScore = alpha;
+			boolean stopped = false;
+			for (int i = 1; i < rootMoves.length; i++)
+			{
+				nodes += searches[i].getNodes();
+				stopped |= searches[i].isStopped();
+
+				int score = getResult(results.get(i - 1));
+				if (score > iterationScore)
+				{
+					iterationScore = score;
+					iterationBest = i;
+				}
+			}
+
+			if (stopped)
+			{
+				break;
+			}
+
+			/** Iteration finished, so its answer replaces the last one */
+			int best = rootMoves[iterationBest];
+			System.arraycopy(rootMoves, 0, rootMoves, 1, iterationBest);
+			rootMoves[0] = best;
+
+			bestMove = best;
+			bestScore = iterationScore;
+			completedDepth = depth;
+		}
+
+		return bestMove;
+	}
+
+	@Override
+	public void setEndgameEmpties(int endgameEmpties)
+	{
+		this.endgameEmpties = endgameEmpties;
+	}
+
+	@Override
+	public void clear()
+	{
+		if (table != null)
+		{
+			table.clear();
+		}
+	}
+
+	/**
+	 * Gets the searches for the root moves, making more if a position ever has
+	 * more moves than expected. Their counters are reset by startClock before each use
+	 *
+	 * @param count The number of root moves
+	 *
+	 * @return The searches, at least count of them
+	 */
+	private Search[] getSearches(int count)
+	{
+		if (searches.length < count)
+		{
+			Search[] grown = new Search[count];
+			System.arraycopy(searches, 0, grown, 0, searches.length);
+			for (int i = searches.length; i < count; i++)
+			{
+				grown[i] = new Search(table, true, weights);
+			}
+			searches = grown;
+		}
+		return searches;
+	}
+
+	/**
+	 * Gets the score a worker returned
+	 *
+	 * @param result The finished task
+	 *
+	 * @return The score
+	 */
+	private static int getResult(Future<Integer> result)
+	{
+		try
+		{
+			return result.get();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while searching", e);
+		} catch (ExecutionException e)
+		{
+			throw new IllegalStateException("Search worker failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Gets the number of worker threads
+	 */
+	public int getThreads()
+	{
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Stops the worker threads
+	 */
+	public void shutdown()
+	{
+		pool.shutdown();
+	}
+
+	@Override
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	@Override
+	public int getCompletedDepth()
+	{
+		return completedDepth;
+	}
+
+	@Override
+	public int getBestScore()
+	{
+		return bestScore;
+	}
+
+	/**
+	 * Gets how long the last search spent trying to solve the endgame exactly,
+	 * in nanoseconds, whether or not the solve finished
+	 */
+	public long getSolveNanos()
+	{
+		return solveNanos;
+	}
+}
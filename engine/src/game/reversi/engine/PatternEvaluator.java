@@ -0,0 +1,216 @@
+package game.reversi.engine;
+
+/**
+ * Pattern evaluation kept up to date move by move
+ * <p>
+ * Holds the base 3 index of every pattern instance (see PatternWeights) for
+ * the current position. Digit 1 is the side which was to move when the
+ * position was set and digit 2 the other side, so making or taking back a move
+ * only adds or subtracts powers of 3 for the changed squares, and evaluating is
+ * one table lookup per instance plus mobility. An evaluator follows one line of
+ * play, so it must only be used by one thread at a time
+ */
+public class PatternEvaluator
+{
+	/**
+	 * Evaluations are kept below the scores of finished games
+	 */
+	private static final int MAX_EVALUATION = Search.WIN_SCORE - 1;
+
+	/**
+	 * Instances of every pattern: which pattern they are and their squares
+	 */
+	private static final int[] INSTANCE_PATTERN;
+	private static final int[][] INSTANCE_SQUARES;
+
+	/**
+	 * For each square, the instances covering it and the power of 3 of its digit in each
+	 */
+	private static final int[][] SQUARE_INSTANCES = new int[Bitboard.SQUARES][];
+	private static final int[][] SQUARE_POWERS = new int[Bitboard.SQUARES][];
+
+	static
+	{
+		int count = 0;
+		for (int[] symmetries : PatternWeights.INSTANCES)
+		{
+			count += symmetries.length;
+		}
+
+		INSTANCE_PATTERN = new int[count];
+		INSTANCE_SQUARES = new int[count][];
+		int instance = 0;
+		for (int pattern = 0; pattern < PatternWeights.PATTERNS.length; pattern++)
+		{
+			for (int symmetry : PatternWeights.INSTANCES[pattern])
+			{
+				int[] squares = new int[PatternWeights.PATTERNS[pattern].length];
+				for (int i = 0; i < squares.length; i++)
+				{
+					squares[i] = Symmetry.transformSquare(PatternWeights.PATTERNS[pattern][i], symmetry);
+				}
+				INSTANCE_PATTERN[instance] = pattern;
+				INSTANCE_SQUARES[instance] = squares;
+				instance++;
+			}
+		}
+
+		int[][] instances = new int[Bitboard.SQUARES][count];
+		int[][] powers = new int[Bitboard.SQUARES][count];
+		int[] covered = new int[Bitboard.SQUARES];
+		for (instance = 0; instance < count; instance++)
+		{
+			int power = 1;
+			for (int square : INSTANCE_SQUARES[instance])
+			{
+				instances[square][covered[square]] = instance;
+				powers[square][covered[square]] = power;
+				covered[square]++;
+				power *= 3;
+			}
+		}
+		for (int square = 0; square < Bitboard.SQUARES; square++)
+		{
+			SQUARE_INSTANCES[square] = new int[covered[square]];
+			SQUARE_POWERS[square] = new int[covered[square]];
+			System.arraycopy(instances[square], 0, SQUARE_INSTANCES[square], 0, covered[square]);
+			System.arraycopy(powers[square], 0, SQUARE_POWERS[square], 0, covered[square]);
+		}
+	}
+
+	/**
+	 * The weights, shared
+	 */
+	private final PatternWeights weights;
+
+	/**
+	 * Current index of each instance
+	 */
+	private final int[] indexes = new int[INSTANCE_PATTERN.length];
+
+	/**
+	 * If the side whose discs are digit 1 is to move
+	 */
+	private boolean firstToMove;
+
+	/**
+	 * Constructor
+	 *
+	 * @param weights The weights to evaluate with
+	 */
+	public PatternEvaluator(PatternWeights weights)
+	{
+		this.weights = weights;
+	}
+
+	/**
+	 * Works out every index from scratch
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 */
+	public void setPosition(long player, long opponent)
+	{
+		for (int instance = 0; instance < indexes.length; instance++)
+		{
+			int[] squares = INSTANCE_SQUARES[instance];
+			int index = 0;
+			for (int i = squares.length - 1; i >= 0; i--)
+			{
+				long bit = 1L << squares[i];
+				index = index * 3 + ((player & bit) != 0 ? 1 : (opponent & bit) != 0 ? 2 : 0);
+			}
+			indexes[instance] = index;
+		}
+		firstToMove = true;
+	}
+
+	/**
+	 * Updates the indexes for a move by the side to move
+	 *
+	 * @param square The square played
+	 * @param flips  The discs it flipped
+	 */
+	public void play(int square, long flips)
+	{
+		int mover = firstToMove ? 1 : 2;
+		update(square, flips, mover, 2 * mover - 3);
+		firstToMove = !firstToMove;
+	}
+
+	/**
+	 * Takes back the last move, with the same arguments it was made with
+	 *
+	 * @param square The square played
+	 * @param flips  The discs it flipped
+	 */
+	public void undo(int square, long flips)
+	{
+		firstToMove = !firstToMove;
+		int mover = firstToMove ? 1 : 2;
+		update(square, flips, -mover, 3 - 2 * mover);
+	}
+
+	/**
+	 * Updates the side to move for a pass, calling it again takes the pass back
+	 */
+	public void pass()
+	{
+		firstToMove = !firstToMove;
+	}
+
+	/**
+	 * Adds a multiple of each changed square's power to its indexes
+	 *
+	 * @param square  The square played
+	 * @param flips   The discs flipped
+	 * @param placed  The change of the played square's digit
+	 * @param flipped The change of each flipped square's digit
+	 */
+	private void update(int square, long flips, int placed, int flipped)
+	{
+		int[] instances = SQUARE_INSTANCES[square];
+		int[] powers = SQUARE_POWERS[square];
+		for (int i = 0; i < instances.length; i++)
+		{
+			indexes[instances[i]] += placed * powers[i];
+		}
+
+		while (flips != 0)
+		{
+			int flip = Long.numberOfTrailingZeros(flips);
+			flips &= flips - 1;
+
+			instances = SQUARE_INSTANCES[flip];
+			powers = SQUARE_POWERS[flip];
+			for (int i = 0; i < instances.length; i++)
+			{
+				indexes[instances[i]] += flipped * powers[i];
+			}
+		}
+	}
+
+	/**
+	 * Scores the current position
+	 *
+	 * @param player   The discs of the side to move, for mobility
+	 * @param opponent The discs of the side waiting
+	 *
+	 * @return The score from the side to move's point of view
+	 */
+	public int evaluate(long player, long opponent)
+	{
+		int score = 0;
+		for (int instance = 0; instance < indexes.length; instance++)
+		{
+			int pattern = INSTANCE_PATTERN[instance];
+			int[] table = firstToMove ? weights.table(pattern) : weights.swappedTable(pattern);
+			score += table[indexes[instance]];
+		}
+
+		int mobility = Long.bitCount(Bitboard.legalMoves(player, opponent))
+				               - Long.bitCount(Bitboard.legalMoves(opponent, player));
+		score += weights.getMobilityWeight() * mobility;
+		return Math.max(-MAX_EVALUATION, Math.min(MAX_EVALUATION, score));
+	}
+}
@@ -0,0 +1,270 @@
+package game.reversi.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Weight tables for the pattern evaluation
+ * <p>
+ * A pattern is a fixed list of squares, placed on the board once for each of
+ * its symmetric instances (the four edges, the four corners, the two
+ * diagonals). The contents of an instance read as a base 3 number, 0 for
+ * empty, 1 for the side to move and 2 for the other side, indexes its table.
+ * The tables are immutable once made, so one set can be shared by any number
+ * of evaluators and threads
+ * <p>
+ * The file format is a header, each table as 16-bit weights and the mobility
+ * weight. Usage: PatternWeights file, writes the built-in defaults
+ */
+public final class PatternWeights
+{
+	/**
+	 * Header: magic "RVPW" and version
+	 */
+	private static final int MAGIC = 0x52565057;
+	private static final int VERSION = 1;
+
+	/**
+	 * The squares of each pattern, for its first instance
+	 */
+	static final int[][] PATTERNS = {
+			/* Edge, along the top row */
+			{0, 1, 2, 3, 4, 5, 6, 7},
+			/* Corner, the top left 3x3 block */
+			{0, 1, 2, 8, 9, 10, 16, 17, 18},
+			/* Diagonal, top left to bottom right */
+			{0, 9, 18, 27, 36, 45, 54, 63}
+	};
+
+	/**
+	 * The symmetries placing the instances of each pattern
+	 */
+	static final int[][] INSTANCES = {
+			{0, Symmetry.FLIP_ROWS, Symmetry.TRANSPOSE, Symmetry.TRANSPOSE | Symmetry.MIRROR_COLS},
+			{0, Symmetry.MIRROR_COLS, Symmetry.FLIP_ROWS, Symmetry.FLIP_ROWS | Symmetry.MIRROR_COLS},
+			{0, Symmetry.MIRROR_COLS}
+	};
+
+	/**
+	 * The default weights are the square weights of Search times this, for
+	 * finer steps when shared between instances
+	 */
+	private static final int DEFAULT_SCALE = 10;
+
+	/**
+	 * Weights for when the side whose discs are digit 1 is to move, and the
+	 * same tables with the digits swapped for when the other side is
+	 */
+	private final int[][] tables;
+	private final int[][] swappedTables;
+	private final int mobilityWeight;
+
+	/**
+	 * Creates weights
+	 *
+	 * @param weights        One table per pattern, 3^squares entries each
+	 * @param mobilityWeight The value of each extra legal move
+	 */
+	public PatternWeights(short[][] weights, int mobilityWeight)
+	{
+		if (weights.length != PATTERNS.length)
+		{
+			throw new IllegalArgumentException("Need " + PATTERNS.length + " tables: " + weights.length);
+		}
+
+		this.tables = new int[PATTERNS.length][];
+		this.swappedTables = new int[PATTERNS.length][];
+		for (int pattern = 0; pattern < PATTERNS.length; pattern++)
+		{
+			int size = size(pattern);
+			if (weights[pattern].length != size)
+			{
+				throw new IllegalArgumentException("Pattern " + pattern + " needs " + size + " weights: "
+						                                   + weights[pattern].length);
+			}
+
+			tables[pattern] = new int[size];
+			swappedTables[pattern] = new int[size];
+			for (int index = 0; index < size; index++)
+			{
+				tables[pattern][index] = weights[pattern][index];
+				swappedTables[pattern][index] = weights[pattern][swapSides(index, PATTERNS[pattern].length)];
+			}
+		}
+		this.mobilityWeight = mobilityWeight;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 1)
+		{
+			System.out.println("Usage: PatternWeights file");
+			return;
+		}
+		defaults().save(Paths.get(args[0]));
+	}
+
+	/**
+	 * Makes weights which score like the square weights of Search, each
+	 * square's value shared between the instances which cover it
+	 *
+	 * @return The default weights
+	 */
+	public static PatternWeights defaults()
+	{
+		/** How many instances cover each square */
+		int[] coverage = new int[Bitboard.SQUARES];
+		for (int pattern = 0; pattern < PATTERNS.length; pattern++)
+		{
+			for (int symmetry : INSTANCES[pattern])
+			{
+				for (int square : PATTERNS[pattern])
+				{
+					coverage[Symmetry.transformSquare(square, symmetry)]++;
+				}
+			}
+		}
+
+		short[][] weights = new short[PATTERNS.length][];
+		for (int pattern = 0; pattern < PATTERNS.length; pattern++)
+		{
+			int[] squares = PATTERNS[pattern];
+			weights[pattern] = new short[size(pattern)];
+			for (int index = 0; index < weights[pattern].length; index++)
+			{
+				int value = 0;
+				int digits = index;
+				for (int square : squares)
+				{
+					int squareValue = Search.SQUARE_WEIGHTS[square] * DEFAULT_SCALE / coverage[square];
+					if (digits % 3 == 1)
+					{
+						value += squareValue;
+					} else if (digits % 3 == 2)
+					{
+						value -= squareValue;
+					}
+					digits /= 3;
+				}
+				weights[pattern][index] = (short) value;
+			}
+		}
+		return new PatternWeights(weights, 10 * DEFAULT_SCALE);
+	}
+
+	/**
+	 * Reads weights from a file
+	 *
+	 * @param file The file
+	 *
+	 * @return The weights
+	 */
+	public static PatternWeights load(Path file) throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+		{
+			if (in.readInt() != MAGIC)
+			{
+				throw new IOException("Not a pattern weights file");
+			}
+			int version = in.readInt();
+			if (version != VERSION)
+			{
+				throw new IOException("Unsupported pattern weights version: " + version);
+			}
+
+			short[][] weights = new short[PATTERNS.length][];
+			for (int pattern = 0; pattern < PATTERNS.length; pattern++)
+			{
+				weights[pattern] = new short[size(pattern)];
+				for (int index = 0; index < weights[pattern].length; index++)
+				{
+					weights[pattern][index] = in.readShort();
+				}
+			}
+			return new PatternWeights(weights, in.readShort());
+		}
+	}
+
+	/**
+	 * Writes the weights to a file
+	 *
+	 * @param file The file
+	 */
+	public void save(Path file) throws IOException
+	{
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file))))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (int[] table : tables)
+			{
+				for (int weight : table)
+				{
+					out.writeShort(weight);
+				}
+			}
+			out.writeShort(mobilityWeight);
+		}
+	}
+
+	/**
+	 * Gets the number of entries of a pattern's table, 3^squares
+	 */
+	static int size(int pattern)
+	{
+		int size = 1;
+		for (int i = 0; i < PATTERNS[pattern].length; i++)
+		{
+			size *= 3;
+		}
+		return size;
+	}
+
+	/**
+	 * Swaps the 1 and 2 digits of an index
+	 */
+	private static int swapSides(int index, int digits)
+	{
+		int swapped = 0;
+		int power = 1;
+		for (int i = 0; i < digits; i++)
+		{
+			int digit = index % 3;
+			swapped += (digit == 0 ? 0 : 3 - digit) * power;
+			index /= 3;
+			power *= 3;
+		}
+		return swapped;
+	}
+
+	/**
+	 * Gets a pattern's table for when the side whose discs are digit 1 is to move
+	 */
+	int[] table(int pattern)
+	{
+		return tables[pattern];
+	}
+
+	/**
+	 * Gets a pattern's table for when the side whose discs are digit 2 is to move
+	 */
+	int[] swappedTable(int pattern)
+	{
+		return swappedTables[pattern];
+	}
+
+	/**
+	 * Gets the value of each extra legal move
+	 */
+	int getMobilityWeight()
+	{
+		return mobilityWeight;
+	}
+}
@@ -0,0 +1,308 @@
+package game.reversi.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the game tree to a depth, to check move generation
+ * and measure its speed
+ * <p>
+ * A pass counts as a move and a finished game counts as a leaf, the usual
+ * convention for Othello perft. From the starting position the counts are
+ * checked against the published values
+ * <p>
+ * Boards of other sizes are counted single threaded through the Board
+ * interface, playing and taking back each move
+ * <p>
+ * Usage: Perft [max depth] [--verify] [--no-bulk] [--threads n] [--position black white b|w] [--size n]
+ */
+public class Perft
+{
+	/**
+	 * Published perft counts from the starting position, index = depth
+	 */
+	private static final long[] KNOWN = {
+			1L, 4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L, 24571284L,
+			212258800L, 1939886636L, 18429641748L, 184042084512L
+	};
+
+	/**
+	 * Depth below which the parallel mode stops splitting work
+	 */
+	private static final int SPLIT_DEPTH = 5;
+
+	/**
+	 * Counts moves at the last ply instead of playing them
+	 */
+	private final boolean bulk;
+
+	/**
+	 * Pool for the parallel mode, null for single threaded
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructor
+	 *
+	 * @param bulk    Count moves at the last ply instead of playing them
+	 * @param threads The number of threads, 1 for single threaded
+	 */
+	public Perft(boolean bulk, int threads)
+	{
+		this.bulk = bulk;
+		this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+	}
+
+	public static void main(String[] args)
+	{
+		int maxDepth = 9;
+		boolean verify = false;
+		boolean bulk = true;
+		int threads = 1;
+		long black = Bitboard.START_BLACK;
+		long white = Bitboard.START_WHITE;
+		boolean blackToMove = true;
+		boolean startPosition = true;
+		int size = Bitboard.SIZE;
+
+		for (int i = 0; i < args.length; i++)
+		{
+			switch (args[i])
+			{
+				case "--verify":
+					verify = true;
+					break;
+				case "--no-bulk":
+					bulk = false;
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--position":
+					black = Long.parseUnsignedLong(args[++i], 16);
+					white = Long.parseUnsignedLong(args[++i], 16);
+					blackToMove = args[++i].equals("b");
+					startPosition = false;
+					break;
+				case "--size":
+					size = Integer.parseInt(args[++i]);
+					break;
+				default:
+					maxDepth = Integer.parseInt(args[i]);
+			}
+		}
+
+		Perft perft = new Perft(bulk, threads);
+		if (size != Bitboard.SIZE)
+		{
+			Board board = Board.create(size);
+			for (int depth = 1; depth <= maxDepth; depth++)
+			{
+				long start = System.nanoTime();
+				long count = perft.count(board, BoardState.BLACK, depth, false);
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.printf("perft %2d (%dx%d): %,16d in %8.3fs, %,14.0f nodes/s%n",
+						depth, size, size, count, seconds, count / Math.max(seconds, 1e-9));
+			}
+			perft.shutdown();
+			return;
+		}
+
+		long player = blackToMove ? black : white;
+		long opponent = blackToMove ? white : black;
+		boolean failed = false;
+
+		for (int depth = 1; depth <= maxDepth; depth++)
+		{
+			long start = System.nanoTime();
+			long count = perft.count(player, opponent, depth);
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			String check = "";
+			if (verify && startPosition && depth < KNOWN.length)
+			{
+				boolean ok = count == KNOWN[depth];
+				failed |= !ok;
+				check = ok ? "  ok" : "  FAILED, expected " + KNOWN[depth];
+			}
+			System.out.printf("perft %2d: %,16d in %8.3fs, %,14.0f nodes/s%s%n",
+					depth, count, seconds, count / Math.max(seconds, 1e-9), check);
+		}
+
+		perft.shutdown();
+		if (failed)
+		{
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Counts the leaves of the tree below a position
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param depth    The number of plies to look ahead
+	 *
+	 * @return The number of leaves
+	 */
+	public long count(long player, long opponent, int depth)
+	{
+		if (pool != null && depth > SPLIT_DEPTH)
+		{
+			return pool.invoke(new PerftTask(player, opponent, depth, false, bulk));
+		}
+		return perft(player, opponent, depth, false, bulk);
+	}
+
+	/**
+	 * Stops the worker threads of the parallel mode
+	 */
+	public void shutdown()
+	{
+		if (pool != null)
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Counts leaves recursively
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param depth    The remaining depth
+	 * @param passed   If the previous move was a pass
+	 * @param bulk     Count moves at the last ply instead of playing them
+	 *
+	 * @return The number of leaves
+	 */
+	private static long perft(long player, long opponent, int depth, boolean passed, boolean bulk)
+	{
+		if (depth == 0)
+		{
+			return 1;
+		}
+
+		long moves = Bitboard.legalMoves(player, opponent);
+		if (moves == 0)
+		{
+			/** Game over is a leaf, otherwise the pass is a move */
+			return passed ? 1 : perft(opponent, player, depth - 1, true, bulk);
+		}
+		if (bulk && depth == 1)
+		{
+			return Long.bitCount(moves);
+		}
+
+		long count = 0;
+		while (moves != 0)
+		{
+			int square = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+
+			long flips = Bitboard.flips(player, opponent, square);
+			count += perft(opponent ^ flips, player | flips | (1L << square), depth - 1, false, bulk);
+		}
+		return count;
+	}
+
+	/**
+	 * Counts leaves of a board of any size, playing and taking back moves
+	 *
+	 * @param board  The board, left as it was found
+	 * @param color  The colour to move
+	 * @param depth  The remaining depth
+	 * @param passed If the previous move was a pass
+	 *
+	 * @return The number of leaves
+	 */
+	public long count(Board board, byte color, int depth, boolean passed)
+	{
+		if (depth == 0)
+		{
+			return 1;
+		}
+
+		if (!board.hasMoves(color))
+		{
+			return passed ? 1 : count(board, BoardState.opponent(color), depth - 1, true);
+		}
+		if (bulk && depth == 1)
+		{
+			return board.mobility(color);
+		}
+
+		long count = 0;
+		int size = board.size();
+		for (int row = 0; row < size; row++)
+		{
+			for (int col = 0; col < size; col++)
+			{
+				if (board.play(color, row, col) != 0)
+				{
+					count += count(board, BoardState.opponent(color), depth - 1, false);
+					board.undo();
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the leaves below one position, splitting its moves into subtasks
+	 * until the remaining depth is small
+	 */
+	private static class PerftTask extends RecursiveTask<Long>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final long player;
+		private final long opponent;
+		private final int depth;
+		private final boolean passed;
+		private final boolean bulk;
+
+		PerftTask(long player, long opponent, int depth, boolean passed, boolean bulk)
+		{
+			this.player = player;
+			this.opponent = opponent;
+			this.depth = depth;
+			this.passed = passed;
+			this.bulk = bulk;
+		}
+
+		@Override
+		protected Long compute()
+		{
+			if (depth <= SPLIT_DEPTH)
+			{
+				return perft(player, opponent, depth, passed, bulk);
+			}
+
+			long moves = Bitboard.legalMoves(player, opponent);
+			if (moves == 0)
+			{
+				return passed ? 1L : new PerftTask(opponent, player, depth - 1, true, bulk).compute();
+			}
+
+			List<PerftTask> tasks = new ArrayList<>(Long.bitCount(moves));
+			while (moves != 0)
+			{
+				int square = Long.numberOfTrailingZeros(moves);
+				moves &= moves - 1;
+
+				long flips = Bitboard.flips(player, opponent, square);
+				tasks.add(new PerftTask(opponent ^ flips, player | flips | (1L << square), depth - 1, false, bulk));
+			}
+
+			long count = 0;
+			for (PerftTask task : invokeAll(tasks))
+			{
+				count += task.join();
+			}
+			return count;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package game.reversi.engine;
+
+/**
+ * Something which chooses moves without any user interface
+ * <p>
+ * Players may keep state between moves, so one player object should only be
+ * used by one game at a time
+ */
+public interface Player
+{
+	/**
+	 * Chooses a move
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the opponent
+	 *
+	 * @return The square to play, or Search.NO_MOVE to pass
+	 */
+	int chooseMove(long player, long opponent);
+
+	/**
+	 * Gets ready for a new game, so that it plays the same whichever games
+	 * the player played before
+	 *
+	 * @param seed Seed for the game's random choices
+	 */
+	void newGame(long seed);
+
+	/**
+	 * Gets a short name for printing results
+	 */
+	String getName();
+}
@@ -0,0 +1,300 @@
+package game.reversi.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read only database of positions with how often they were reached and how
+ * those games ended, memory mapped from a file
+ * <p>
+ * Positions are stored in their canonical form (see Symmetry), so the 8
+ * symmetric versions of a position share one entry, from the point of view of
+ * the side to move. The file is an open addressing hash table: a power of two
+ * number of fixed size slots, a position goes in the first free slot from its
+ * Zobrist hash on. A slot holds the whole position, so there are no false
+ * matches, and its statistics: games reached in, wins and draws for the side
+ * to move and the sum of its final disc differences. A lookup hashes and
+ * reads a slot or two straight from the mapping, nothing is loaded up front
+ * <p>
+ * Usage: PositionDatabase file, prints the size and the starting position
+ */
+public class PositionDatabase implements Closeable
+{
+	/**
+	 * Header: magic "RVPD", version, number of slots and number of positions
+	 */
+	static final int MAGIC = 0x52565044;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 24;
+
+	/**
+	 * Slot: player (8), opponent (8), games (4), wins (4), draws (4), disc difference sum (4)
+	 */
+	static final int SLOT_BYTES = 32;
+
+	/**
+	 * Returned by find when the position is not in the database
+	 */
+	public static final long NOT_FOUND = -1;
+
+	/**
+	 * The slots are mapped in parts of this many, so the table can pass 2GB
+	 */
+	private static final int CHUNK_SLOTS_LOG = 25;
+	private static final long CHUNK_SLOTS = 1L << CHUNK_SLOTS_LOG;
+
+	/**
+	 * The file
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The mapped slots, in chunks
+	 */
+	private final MappedByteBuffer[] chunks;
+
+	/**
+	 * Number of slots, a power of two, and number of positions
+	 */
+	private final long slots;
+	private final long positions;
+
+	/**
+	 * Maps a database file
+	 *
+	 * @param channel The file
+	 */
+	private PositionDatabase(FileChannel channel) throws IOException
+	{
+		this.channel = channel;
+		if (channel.size() < HEADER_BYTES)
+		{
+			throw new IOException("Not a position database");
+		}
+
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+		if (header.getInt(0) != MAGIC)
+		{
+			throw new IOException("Not a position database");
+		}
+		if (header.getInt(4) != VERSION)
+		{
+			throw new IOException("Unsupported position database version: " + header.getInt(4));
+		}
+		this.slots = header.getLong(8);
+		this.positions = header.getLong(16);
+		if (slots <= 0 || Long.bitCount(slots) != 1 || positions >= slots)
+		{
+			throw new IOException("Corrupt position database header");
+		}
+		if (HEADER_BYTES + slots * SLOT_BYTES > channel.size())
+		{
+			throw new IOException("Position database is truncated");
+		}
+
+		this.chunks = new MappedByteBuffer[(int) ((slots + CHUNK_SLOTS - 1) >>> CHUNK_SLOTS_LOG)];
+		for (int chunk = 0; chunk < chunks.length; chunk++)
+		{
+			long first = chunk * CHUNK_SLOTS;
+			chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * SLOT_BYTES,
+					Math.min(CHUNK_SLOTS, slots - first) * SLOT_BYTES);
+		}
+	}
+
+	/**
+	 * Opens a database file
+	 *
+	 * @param file The file to map
+	 *
+	 * @return The database
+	 */
+	public static PositionDatabase open(Path file) throws IOException
+	{
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try
+		{
+			return new PositionDatabase(channel);
+		} catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 1)
+		{
+			System.out.println("Usage: PositionDatabase file");
+			return;
+		}
+
+		try (PositionDatabase database = open(Paths.get(args[0])))
+		{
+			System.out.printf("%,d positions in %,d slots (%.0f%% full)%n", database.size(), database.slots,
+					100.0 * database.size() / database.slots);
+
+			BoardState board = new BoardState();
+			long slot = database.find(board, BoardState.BLACK);
+			if (slot != NOT_FOUND)
+			{
+				System.out.printf("Start: %d games, black wins %d, draws %d, losses %d, average discs %+.2f%n",
+						database.getGames(slot), database.getWins(slot), database.getDraws(slot),
+						database.getLosses(slot), (double) database.getDiscSum(slot) / database.getGames(slot));
+			}
+		}
+	}
+
+	/**
+	 * Hashes the canonical form of a position into its first slot
+	 *
+	 * @param player   The discs of the side to move, canonical
+	 * @param opponent The discs of the side waiting, canonical
+	 * @param mask     The number of slots minus one
+	 *
+	 * @return The slot to start probing from
+	 */
+	static long home(long player, long opponent, long mask)
+	{
+		return Zobrist.hash(player, opponent) & mask;
+	}
+
+	/**
+	 * Finds a position
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 *
+	 * @return The position's slot for the getters, or NOT_FOUND
+	 */
+	public long find(long player, long opponent)
+	{
+		int symmetry = Symmetry.canonical(player, opponent);
+		long canonicalPlayer = Symmetry.transform(player, symmetry);
+		long canonicalOpponent = Symmetry.transform(opponent, symmetry);
+
+		long mask = slots - 1;
+		for (long slot = home(canonicalPlayer, canonicalOpponent, mask); ; slot = (slot + 1) & mask)
+		{
+			long slotPlayer = getLong(slot, 0);
+			long slotOpponent = getLong(slot, 8);
+			if (slotPlayer == canonicalPlayer && slotOpponent == canonicalOpponent)
+			{
+				return slot;
+			}
+			/** The table is never full, so an empty slot always ends the probe */
+			if (slotPlayer == 0 && slotOpponent == 0)
+			{
+				return NOT_FOUND;
+			}
+		}
+	}
+
+	/**
+	 * Finds a position on an 8x8 board
+	 *
+	 * @param board  The board
+	 * @param toMove The colour to move
+	 *
+	 * @return The position's slot for the getters, or NOT_FOUND
+	 */
+	public long find(BoardState board, byte toMove)
+	{
+		if (board.size() != Bitboard.SIZE)
+		{
+			throw new IllegalArgumentException("Only 8x8 positions are stored: " + board.size());
+		}
+		return find(board.discs(toMove), board.discs(BoardState.opponent(toMove)));
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	/**
+	 * Gets the number of positions
+	 */
+	public long size()
+	{
+		return positions;
+	}
+
+	/**
+	 * Gets the number of slots, for merging into a new database
+	 */
+	long slots()
+	{
+		return slots;
+	}
+
+	/** ---------------------------------------- */
+	/** Statistics of a slot returned from find */
+	/** ---------------------------------------- */
+
+	/**
+	 * Gets the number of games which reached the position
+	 */
+	public int getGames(long slot)
+	{
+		return getInt(slot, 16);
+	}
+
+	/**
+	 * Gets the number of those games the side to move won
+	 */
+	public int getWins(long slot)
+	{
+		return getInt(slot, 20);
+	}
+
+	public int getDraws(long slot)
+	{
+		return getInt(slot, 24);
+	}
+
+	public int getLosses(long slot)
+	{
+		return getGames(slot) - getWins(slot) - getDraws(slot);
+	}
+
+	/**
+	 * Gets the side to move's final discs minus the opponent's, summed over the games
+	 */
+	public int getDiscSum(long slot)
+	{
+		return getInt(slot, 28);
+	}
+
+	/**
+	 * Gets the canonical discs of the side to move in a slot, 0 with the opponent's for an empty slot
+	 */
+	long getPlayer(long slot)
+	{
+		return getLong(slot, 0);
+	}
+
+	long getOpponent(long slot)
+	{
+		return getLong(slot, 8);
+	}
+
+	/**
+	 * Reads a field of a slot
+	 */
+	private long getLong(long slot, int field)
+	{
+		return chunks[(int) (slot >>> CHUNK_SLOTS_LOG)].getLong((int) (slot & (CHUNK_SLOTS - 1)) * SLOT_BYTES + field);
+	}
+
+	private int getInt(long slot, int field)
+	{
+		return chunks[(int) (slot >>> CHUNK_SLOTS_LOG)].getInt((int) (slot & (CHUNK_SLOTS - 1)) * SLOT_BYTES + field);
+	}
+}
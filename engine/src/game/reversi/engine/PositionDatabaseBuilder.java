@@ -0,0 +1,302 @@
+package game.reversi.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Builds a position database (see PositionDatabase) from game record files
+ * <p>
+ * Every position of every game, from the start to the final one, is added in
+ * its canonical form with the result for the side to move. The table is built
+ * in memory with the same hashing and slot order as the file, so writing it
+ * out is a straight copy. An existing database file is merged in first
+ * <p>
+ * Usage: PositionDatabaseBuilder file records...
+ */
+public class PositionDatabaseBuilder
+{
+	/**
+	 * Starting number of slots, the table doubles whenever it is half full
+	 */
+	private static final int INITIAL_SLOTS = 1 << 16;
+
+	/**
+	 * Slot fields, see PositionDatabase
+	 */
+	private long[] players;
+	private long[] opponents;
+	private int[] games;
+	private int[] wins;
+	private int[] draws;
+	private int[] discSums;
+	private int size;
+
+	/**
+	 * Scratch positions of the game being added
+	 */
+	private final long[] gamePlayers = new long[GameRecord.MAX_MOVES + 1];
+	private final long[] gameOpponents = new long[GameRecord.MAX_MOVES + 1];
+	private final boolean[] gameBlackToMove = new boolean[GameRecord.MAX_MOVES + 1];
+
+	/**
+	 * Creates an empty builder
+	 */
+	public PositionDatabaseBuilder()
+	{
+		allocate(INITIAL_SLOTS);
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 2)
+		{
+			System.out.println("Usage: PositionDatabaseBuilder file records...");
+			return;
+		}
+
+		Path file = Paths.get(args[0]);
+		PositionDatabaseBuilder builder = new PositionDatabaseBuilder();
+		if (Files.exists(file))
+		{
+			try (PositionDatabase database = PositionDatabase.open(file))
+			{
+				builder.add(database);
+			}
+		}
+
+		long games = 0;
+		long start = System.nanoTime();
+		for (int i = 1; i < args.length; i++)
+		{
+			try (GameRecordReader reader = GameRecordReader.open(Paths.get(args[i])))
+			{
+				while (reader.next())
+				{
+					builder.addGame(reader);
+					games++;
+				}
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		builder.write(file);
+		System.out.printf("%d games in %.2fs, %d positions written to %s%n", games, seconds, builder.size(), file);
+	}
+
+	/**
+	 * Merges in every position of an existing database
+	 *
+	 * @param database The database
+	 */
+	public void add(PositionDatabase database)
+	{
+		for (long slot = 0; slot < database.slots(); slot++)
+		{
+			long player = database.getPlayer(slot);
+			long opponent = database.getOpponent(slot);
+			if (player != 0 || opponent != 0)
+			{
+				int index = slot(player, opponent);
+				games[index] += database.getGames(slot);
+				wins[index] += database.getWins(slot);
+				draws[index] += database.getDraws(slot);
+				discSums[index] += database.getDiscSum(slot);
+			}
+		}
+	}
+
+	/**
+	 * Adds every position of a game
+	 *
+	 * @param reader A reader on the game
+	 */
+	public void addGame(GameRecordReader reader)
+	{
+		long toMove = Bitboard.START_BLACK;
+		long waiting = Bitboard.START_WHITE;
+		boolean blackToMove = true;
+		int count = 0;
+
+		int moveCount = reader.getMoveCount();
+		for (int i = 0; i < moveCount; i++)
+		{
+			/** A side with no move passed */
+			long legal = Bitboard.legalMoves(toMove, waiting);
+			if (legal == 0)
+			{
+				long swap = toMove;
+				toMove = waiting;
+				waiting = swap;
+				blackToMove = !blackToMove;
+				legal = Bitboard.legalMoves(toMove, waiting);
+			}
+
+			int square = reader.getMove(i);
+			if (square < 0 || square >= Bitboard.SQUARES || (legal & (1L << square)) == 0)
+			{
+				throw new IllegalStateException("Illegal move " + square + " at ply " + i);
+			}
+			gamePlayers[count] = toMove;
+			gameOpponents[count] = waiting;
+			gameBlackToMove[count] = blackToMove;
+			count++;
+
+			long flips = Bitboard.flips(toMove, waiting, square);
+			long next = waiting ^ flips;
+			waiting = toMove | flips | (1L << square);
+			toMove = next;
+			blackToMove = !blackToMove;
+		}
+		gamePlayers[count] = toMove;
+		gameOpponents[count] = waiting;
+		gameBlackToMove[count] = blackToMove;
+		count++;
+
+		int blackDiscs = reader.getResult();
+		for (int i = 0; i < count; i++)
+		{
+			add(gamePlayers[i], gameOpponents[i], gameBlackToMove[i] ? blackDiscs : -blackDiscs);
+		}
+	}
+
+	/**
+	 * Adds one game's visit to a position
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 * @param discs    The side to move's final discs minus the opponent's
+	 */
+	public void add(long player, long opponent, int discs)
+	{
+		int symmetry = Symmetry.canonical(player, opponent);
+		int index = slot(Symmetry.transform(player, symmetry), Symmetry.transform(opponent, symmetry));
+		games[index]++;
+		if (discs > 0)
+		{
+			wins[index]++;
+		} else if (discs == 0)
+		{
+			draws[index]++;
+		}
+		discSums[index] += discs;
+	}
+
+	/**
+	 * Finds the slot of a canonical position, claiming an empty one if it is new
+	 */
+	private int slot(long player, long opponent)
+	{
+		if ((size + 1) * 2 > players.length)
+		{
+			grow();
+		}
+
+		int mask = players.length - 1;
+		int index = (int) PositionDatabase.home(player, opponent, mask);
+		while (players[index] != 0 || opponents[index] != 0)
+		{
+			if (players[index] == player && opponents[index] == opponent)
+			{
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+
+		players[index] = player;
+		opponents[index] = opponent;
+		size++;
+		return index;
+	}
+
+	/**
+	 * Doubles the table, putting every position back in its new slot
+	 */
+	private void grow()
+	{
+		long[] oldPlayers = players;
+		long[] oldOpponents = opponents;
+		int[] oldGames = games;
+		int[] oldWins = wins;
+		int[] oldDraws = draws;
+		int[] oldDiscSums = discSums;
+
+		allocate(oldPlayers.length * 2);
+		int mask = players.length - 1;
+		for (int old = 0; old < oldPlayers.length; old++)
+		{
+			if (oldPlayers[old] == 0 && oldOpponents[old] == 0)
+			{
+				continue;
+			}
+			int index = (int) PositionDatabase.home(oldPlayers[old], oldOpponents[old], mask);
+			while (players[index] != 0 || opponents[index] != 0)
+			{
+				index = (index + 1) & mask;
+			}
+			players[index] = oldPlayers[old];
+			opponents[index] = oldOpponents[old];
+			games[index] = oldGames[old];
+			wins[index] = oldWins[old];
+			draws[index] = oldDraws[old];
+			discSums[index] = oldDiscSums[old];
+			size++;
+		}
+	}
+
+	/**
+	 * Replaces the table with an empty one
+	 *
+	 * @param slots The number of slots, a power of two
+	 */
+	private void allocate(int slots)
+	{
+		players = new long[slots];
+		opponents = new long[slots];
+		games = new int[slots];
+		wins = new int[slots];
+		draws = new int[slots];
+		discSums = new int[slots];
+		size = 0;
+	}
+
+	/**
+	 * Writes the database, replacing the file once it is complete
+	 *
+	 * @param file The file to write
+	 */
+	public void write(Path file) throws IOException
+	{
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)))
+		{
+			out.writeInt(PositionDatabase.MAGIC);
+			out.writeInt(PositionDatabase.VERSION);
+			out.writeLong(players.length);
+			out.writeLong(size);
+			for (int index = 0; index < players.length; index++)
+			{
+				out.writeLong(players[index]);
+				out.writeLong(opponents[index]);
+				out.writeInt(games[index]);
+				out.writeInt(wins[index]);
+				out.writeInt(draws[index]);
+				out.writeInt(discSums[index]);
+			}
+		}
+		/** The old database may still be mapped, so it is replaced rather than written over */
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Gets the number of positions
+	 */
+	public int size()
+	{
+		return size;
+	}
+}
@@ -0,0 +1,53 @@
+package game.reversi.engine;
+
+import java.util.Random;
+
+/**
+ * Plays any legal move with equal chance
+ */
+public class RandomPlayer implements Player
+{
+	/**
+	 * Source of moves
+	 */
+	private final Random random;
+
+	/**
+	 * Creates a random player
+	 *
+	 * @param seed Seed for choosing moves
+	 */
+	public RandomPlayer(long seed)
+	{
+		this.random = new Random(seed);
+	}
+
+	@Override
+	public int chooseMove(long player, long opponent)
+	{
+		long moves = Bitboard.legalMoves(player, opponent);
+		if (moves == 0)
+		{
+			return Search.NO_MOVE;
+		}
+
+		/** Drop a random number of the lowest moves */
+		for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+		{
+			moves &= moves - 1;
+		}
+		return Long.numberOfTrailingZeros(moves);
+	}
+
+	@Override
+	public void newGame(long seed)
+	{
+		random.setSeed(seed);
+	}
+
+	@Override
+	public String getName()
+	{
+		return "random";
+	}
+}
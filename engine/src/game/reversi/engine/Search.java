@@ -0,0 +1,590 @@
+package game.reversi.engine;
+
+/**
+ * Alpha-beta minimax search over bitboards with iterative deepening
+ * <p>
+ * Each call deepens one ply at a time until the time budget runs out and then
+ * returns the best move of the deepest search that finished. A search object
+ * keeps its own counters so it must only be used by one thread at a time
+ */
+public class Search implements MoveSearch
+{
+	/**
+	 * Returned when the side to move has to pass
+	 */
+	public static final int NO_MOVE = -1;
+
+	/**
+	 * Deepest search that will be attempted
+	 */
+	public static final int MAX_DEPTH = 60;
+
+	/**
+	 * Time budget for searches which are only limited by depth, about 70 years
+	 */
+	public static final long NO_TIME_LIMIT = Long.MAX_VALUE / 4000000L;
+
+	/**
+	 * Positions with this many empty squares or fewer are solved exactly, if
+	 * the time budget is long enough for the solve to finish
+	 */
+	public static final int ENDGAME_EMPTIES = 20;
+
+	/**
+	 * Scores beyond any evaluation, used for won / lost positions
+	 */
+	protected static final int INFINITY = 1000000;
+	protected static final int WIN_SCORE = 100000;
+
+	/**
+	 * How many nodes to search between checks of the clock
+	 */
+	private static final int CLOCK_CHECK_NODES = 4096;
+
+	/**
+	 * Positional value of each square, corners good and the squares next to them bad
+	 */
+	static final int[] SQUARE_WEIGHTS = {
+			100, -20, 10, 5, 5, 10, -20, 100,
+			-20, -50, -2, -2, -2, -2, -50, -20,
+			10, -2, -1, -1, -1, -1, -2, 10,
+			5, -2, -1, -1, -1, -1, -2, 5,
+			5, -2, -1, -1, -1, -1, -2, 5,
+			10, -2, -1, -1, -1, -1, -2, 10,
+			-20, -50, -2, -2, -2, -2, -50, -20,
+			100, -20, 10, 5, 5, 10, -20, 100
+	};
+
+	/**
+	 * Squares grouped by weight so evaluation is a handful of popcounts
+	 */
+	private static final int[] WEIGHT_VALUES;
+	private static final long[] WEIGHT_MASKS;
+
+	static
+	{
+		int[] values = new int[SQUARE_WEIGHTS.length];
+		long[] masks = new long[SQUARE_WEIGHTS.length];
+		int groups = 0;
+
+		for (int square = 0; square < SQUARE_WEIGHTS.length; square++)
+		{
+			int group = 0;
+			while (group < groups && values[group] != SQUARE_WEIGHTS[square])
+			{
+				group++;
+			}
+			if (group == groups)
+			{
+				values[groups++] = SQUARE_WEIGHTS[square];
+			}
+			masks[group] |= 1L << square;
+		}
+
+		WEIGHT_VALUES = new int[groups];
+		WEIGHT_MASKS = new long[groups];
+		System.arraycopy(values, 0, WEIGHT_VALUES, 0, groups);
+		System.arraycopy(masks, 0, WEIGHT_MASKS, 0, groups);
+	}
+
+	/**
+	 * Table of positions already searched, may be null
+	 */
+	protected final TranspositionTable table;
+
+	/**
+	 * Only take scores from table entries searched to exactly the needed depth,
+	 * so a score never depends on what other threads stored before
+	 */
+	private final boolean exactDepthHits;
+
+	/**
+	 * Pattern evaluation, updated as moves are made, or null for the square weights
+	 */
+	private final PatternEvaluator patterns;
+
+	/**
+	 * Perfect play once few squares are left, made on first use as the
+	 * workers of a ParallelSearch never need one
+	 */
+	private EndgameSolver solver;
+	private int endgameEmpties = ENDGAME_EMPTIES;
+
+	/**
+	 * Counters for the last search
+	 */
+	protected long nodes;
+	private int completedDepth;
+	private int bestScore;
+	private long solveNanos;
+
+	/**
+	 * Time keeping
+	 */
+	private long deadline;
+	private boolean stopped;
+
+	/**
+	 * Creates a search without a transposition table
+	 */
+	public Search()
+	{
+		this(null);
+	}
+
+	/**
+	 * Creates a search which shares a transposition table
+	 *
+	 * @param table The table to use, or null for none
+	 */
+	public Search(TranspositionTable table)
+	{
+		this(table, false);
+	}
+
+	/**
+	 * Creates a search which shares a transposition table
+	 *
+	 * @param table          The table to use, or null for none
+	 * @param exactDepthHits Only take scores from entries of exactly the needed depth
+	 */
+	Search(TranspositionTable table, boolean exactDepthHits)
+	{
+		this(table, exactDepthHits, null);
+	}
+
+	/**
+	 * Creates a search which evaluates with patterns
+	 *
+	 * @param table   The table to use, or null for none
+	 * @param weights The pattern weights, or null for the square weights
+	 */
+	public Search(TranspositionTable table, PatternWeights weights)
+	{
+		this(table, false, weights);
+	}
+
+	/**
+	 * Creates a search
+	 *
+	 * @param table          The table to use, or null for none
+	 * @param exactDepthHits Only take scores from entries of exactly the needed depth
+	 * @param weights        The pattern weights, or null for the square weights
+	 */
+	Search(TranspositionTable table, boolean exactDepthHits, PatternWeights weights)
+	{
+		this.table = table;
+		this.exactDepthHits = exactDepthHits;
+		this.patterns = weights != null ? new PatternEvaluator(weights) : null;
+	}
+
+	/**
+	 * Searches a position until the time budget runs out
+	 *
+	 * @param player       The discs of the player to move
+	 * @param opponent     The discs of the opponent
+	 * @param timeBudgetMs How long the search may take, in milliseconds
+	 *
+	 * @return The square of the best move found, or NO_MOVE if the player must pass
+	 */
+	@Override
+	public int findBestMove(long player, long opponent, long timeBudgetMs)
+	{
+		return findBestMove(player, opponent, timeBudgetMs, MAX_DEPTH);
+	}
+
+	/**
+	 * Searches a position until the time budget runs out or a depth is reached
+	 *
+	 * @param player       The discs of the player to move
+	 * @param opponent     The discs of the opponent
+	 * @param timeBudgetMs How long the search may take, in milliseconds
+	 * @param maxDepth     The deepest search to try
+	 *
+	 * @return The square of the best move found, or NO_MOVE if the player must pass
+	 */
+	@Override
+	public int findBestMove(long player, long opponent, long timeBudgetMs, int maxDepth)
+	{
+		completedDepth = 0;
+		bestScore = 0;
+		solveNanos = 0;
+		startClock(System.nanoTime() + timeBudgetMs * 1000000L);
+		if (table != null)
+		{
+			table.newSearch();
+		}
+
+		long moves = Bitboard.legalMoves(player, opponent);
+		if (moves == 0)
+		{
+			return NO_MOVE;
+		}
+
+		/** Keep the root moves in an array so the best one can be tried first next iteration */
+		int[] rootMoves = new int[Long.bitCount(moves)];
+		for (int i = 0; i < rootMoves.length; i++)
+		{
+			rootMoves[i] = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+		}
+
+		int bestMove = rootMoves[0];
+		int empties = Long.bitCount(~(player | opponent));
+
+		/**
+		 * Try to solve the rest of the game in half the time left, if it should
+		 * finish in that, with the heuristic search as the fallback
+		 */
+		long now = System.nanoTime();
+		long solveTime = (deadline - now) / 2;
+		if (empties <= Math.min(Math.min(maxDepth, endgameEmpties), EndgameSolver.maxEmpties(solveTime)))
+		{
+			if (solver == null)
+			{
+				solver = new EndgameSolver();
+			}
+			int move = solver.solveBestMove(player, opponent, now + solveTime);
+			nodes += solver.getNodes();
+			solveNanos = System.nanoTime() - now;
+			if (move != EndgameSolver.TIMED_OUT)
+			{
+				bestScore = exactScore(solver.getBestScore());
+				completedDepth = empties;
+				return move;
+			}
+		}
+
+		for (int depth = 1; depth <= Math.min(maxDepth, empties); depth++)
+		{
+			int alpha = -INFINITY;
+			int iterationBest = -1;
+
+			for (int i = 0; i < rootMoves.length; i++)
+			{
+				int score = searchMove(player, opponent, rootMoves[i], depth, alpha, INFINITY);
+				if (stopped)
+				{
+					break;
+				}
+				if (score > alpha)
+				{
+					alpha = score;
+					iterationBest = i;
+				}
+			}
+
+			if (stopped)
+			{
+				break;
+			}
+
+			/** Iteration finished, so its answer replaces the last one */
+			int best = rootMoves[iterationBest];
+			System.arraycopy(rootMoves, 0, rootMoves, 1, iterationBest);
+			rootMoves[0] = best;
+
+			bestMove = best;
+			bestScore = alpha;
+			completedDepth = depth;
+		}
+
+		return bestMove;
+	}
+
+	/**
+	 * Sets how many empty squares a position needs to have at most to be solved
+	 * exactly, a fixed depth search also needs to reach the end of the game and
+	 * a timed one needs enough time
+	 *
+	 * @param endgameEmpties The number of empty squares, 0 to never solve
+	 */
+	@Override
+	public void setEndgameEmpties(int endgameEmpties)
+	{
+		this.endgameEmpties = endgameEmpties;
+	}
+
+	@Override
+	public void clear()
+	{
+		if (table != null)
+		{
+			table.clear();
+		}
+	}
+
+	/**
+	 * Resets the node counter and sets when the search has to stop
+	 *
+	 * @param deadline The System.nanoTime() to stop at
+	 */
+	void startClock(long deadline)
+	{
+		this.nodes = 0;
+		this.stopped = false;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Plays a move and searches the position after it
+	 *
+	 * @param player   The discs of the player to move
+	 * @param opponent The discs of the opponent
+	 * @param square   The move to play
+	 * @param depth    The depth to search, including the move
+	 * @param alpha    The lower bound
+	 * @param beta     The upper bound
+	 *
+	 * @return The score of the move from the player's point of view
+	 */
+	int searchMove(long player, long opponent, int square, int depth, int alpha, int beta)
+	{
+		long flips = Bitboard.flips(player, opponent, square);
+		if (patterns == null)
+		{
+			return -negamax(opponent ^ flips, player | flips | (1L << square), depth - 1, -beta, -alpha, false);
+		}
+
+		patterns.setPosition(player, opponent);
+		patterns.play(square, flips);
+		int score = -negamax(opponent ^ flips, player | flips | (1L << square), depth - 1, -beta, -alpha, false);
+		patterns.undo(square, flips);
+		return score;
+	}
+
+	/**
+	 * Checks if the last search ran out of time
+	 */
+	boolean isStopped()
+	{
+		return stopped;
+	}
+
+	/**
+	 * Negamax with alpha-beta pruning
+	 *
+	 * @param player   The discs of the player to move
+	 * @param opponent The discs of the opponent
+	 * @param depth    The remaining depth
+	 * @param alpha    The lower bound
+	 * @param beta     The upper bound
+	 * @param passed   If the previous move was a pass
+	 *
+	 * @return The score of the position from the player's point of view
+	 */
+	protected int negamax(long player, long opponent, int depth, int alpha, int beta, boolean passed)
+	{
+		if ((++nodes & (CLOCK_CHECK_NODES - 1)) == 0 && System.nanoTime() > deadline)
+		{
+			stopped = true;
+		}
+		if (stopped)
+		{
+			return 0;
+		}
+
+		if (depth == 0)
+		{
+			return patterns != null ? patterns.evaluate(player, opponent) : evaluate(player, opponent);
+		}
+
+		/** Use what the table knows about this position */
+		int alphaOrig = alpha;
+		int hashMove = NO_MOVE;
+		long hash = 0;
+		if (table != null)
+		{
+			hash = Zobrist.hash(player, opponent);
+			long entry = table.probe(hash);
+			if (entry != TranspositionTable.MISS)
+			{
+				hashMove = TranspositionTable.move(entry);
+				int entryDepth = TranspositionTable.depth(entry);
+				if (entryDepth == depth || (entryDepth > depth && !exactDepthHits))
+				{
+					int score = TranspositionTable.score(entry);
+					switch (TranspositionTable.bound(entry))
+					{
+						case TranspositionTable.EXACT:
+							return score;
+						case TranspositionTable.LOWER:
+							alpha = Math.max(alpha, score);
+							break;
+						case TranspositionTable.UPPER:
+							beta = Math.min(beta, score);
+							break;
+					}
+					if (alpha >= beta)
+					{
+						return score;
+					}
+				}
+			}
+		}
+
+		long moves = Bitboard.legalMoves(player, opponent);
+		if (moves == 0)
+		{
+			if (passed)
+			{
+				return finalScore(player, opponent);
+			}
+			if (patterns == null)
+			{
+				return -negamax(opponent, player, depth, -beta, -alpha, true);
+			}
+
+			patterns.pass();
+			int score = -negamax(opponent, player, depth, -beta, -alpha, true);
+			patterns.pass();
+			return score;
+		}
+
+		int best = -INFINITY;
+		int bestMove = NO_MOVE;
+
+		/** Try the table's move first, it is the most likely to cut off */
+		int square = NO_MOVE;
+		if (hashMove != NO_MOVE && (moves & (1L << hashMove)) != 0)
+		{
+			square = hashMove;
+		}
+
+		while (moves != 0)
+		{
+			if (square == NO_MOVE)
+			{
+				square = Long.numberOfTrailingZeros(moves);
+			}
+			moves &= ~(1L << square);
+
+			long flips = Bitboard.flips(player, opponent, square);
+			if (patterns != null)
+			{
+				patterns.play(square, flips);
+			}
+			int score = -negamax(opponent ^ flips, player | flips | (1L << square),
+					depth - 1, -beta, -alpha, false);
+			if (patterns != null)
+			{
+				patterns.undo(square, flips);
+			}
+
+			if (score > best)
+			{
+				best = score;
+				bestMove = square;
+				if (score > alpha)
+				{
+					alpha = score;
+					if (alpha >= beta)
+					{
+						break;
+					}
+				}
+			}
+			square = NO_MOVE;
+		}
+
+		if (table != null && !stopped)
+		{
+			int bound = best <= alphaOrig ? TranspositionTable.UPPER
+					            : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+			table.store(hash, depth, bound, best, bestMove);
+		}
+		return best;
+	}
+
+	/**
+	 * Scores a finished game so that any win beats any evaluation
+	 *
+	 * @param player   The discs of the player to move
+	 * @param opponent The discs of the opponent
+	 *
+	 * @return The score from the player's point of view
+	 */
+	protected static int finalScore(long player, long opponent)
+	{
+		return exactScore(Long.bitCount(player) - Long.bitCount(opponent));
+	}
+
+	/**
+	 * Scores a known final disc difference so that any win beats any evaluation
+	 *
+	 * @param diff The player's discs minus the opponent's at the end of the game
+	 *
+	 * @return The score from the player's point of view
+	 */
+	static int exactScore(int diff)
+	{
+		if (diff > 0)
+		{
+			return WIN_SCORE + diff;
+		} else if (diff < 0)
+		{
+			return -WIN_SCORE + diff;
+		} else
+		{
+			return 0;
+		}
+	}
+
+	/**
+	 * Static evaluation from square weights and mobility
+	 *
+	 * @param player   The discs of the player to move
+	 * @param opponent The discs of the opponent
+	 *
+	 * @return The score from the player's point of view
+	 */
+	public static int evaluate(long player, long opponent)
+	{
+		int score = 0;
+		for (int group = 0; group < WEIGHT_MASKS.length; group++)
+		{
+			score += WEIGHT_VALUES[group]
+					         * (Long.bitCount(player & WEIGHT_MASKS[group]) - Long.bitCount(opponent & WEIGHT_MASKS[group]));
+		}
+
+		int mobility = Long.bitCount(Bitboard.legalMoves(player, opponent))
+				               - Long.bitCount(Bitboard.legalMoves(opponent, player));
+		return score + 10 * mobility;
+	}
+
+	/**
+	 * Gets the number of nodes visited by the last search
+	 */
+	@Override
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	/**
+	 * Gets the depth of the deepest iteration the last search finished
+	 */
+	@Override
+	public int getCompletedDepth()
+	{
+		return completedDepth;
+	}
+
+	/**
+	 * Gets the score of the move returned by the last search
+	 */
+	@Override
+	public int getBestScore()
+	{
+		return bestScore;
+	}
+
+	/**
+	 * Gets how long the last search spent trying to solve the endgame exactly,
+	 * in nanoseconds, whether or not the solve finished
+	 */
+	public long getSolveNanos()
+	{
+		return solveNanos;
+	}
+}
@@ -0,0 +1,77 @@
+package game.reversi.engine;
+
+/**
+ * Plays the move an alpha-beta search picks
+ */
+public class SearchPlayer implements Player
+{
+	/**
+	 * The search to run
+	 */
+	private final MoveSearch search;
+
+	/**
+	 * Limits for each move
+	 */
+	private final long timeBudgetMs;
+	private final int maxDepth;
+
+	/**
+	 * Name for printing results, null to name it by its limits
+	 */
+	private final String name;
+
+	/**
+	 * Creates a search player
+	 *
+	 * @param search       The search to run
+	 * @param timeBudgetMs How long each move may take, in milliseconds
+	 * @param maxDepth     The deepest search to try
+	 */
+	public SearchPlayer(MoveSearch search, long timeBudgetMs, int maxDepth)
+	{
+		this(null, search, timeBudgetMs, maxDepth);
+	}
+
+	/**
+	 * Creates a named search player
+	 *
+	 * @param name         The name for printing results
+	 * @param search       The search to run
+	 * @param timeBudgetMs How long each move may take, in milliseconds
+	 * @param maxDepth     The deepest search to try
+	 */
+	public SearchPlayer(String name, MoveSearch search, long timeBudgetMs, int maxDepth)
+	{
+		this.name = name;
+		this.search = search;
+		this.timeBudgetMs = timeBudgetMs;
+		this.maxDepth = maxDepth;
+	}
+
+	@Override
+	public int chooseMove(long player, long opponent)
+	{
+		return search.findBestMove(player, opponent, timeBudgetMs, maxDepth);
+	}
+
+	/**
+	 * Searches have no random choices, but what the table kept from earlier
+	 * games changes their results
+	 */
+	@Override
+	public void newGame(long seed)
+	{
+		search.clear();
+	}
+
+	@Override
+	public String getName()
+	{
+		if (name != null)
+		{
+			return name;
+		}
+		return maxDepth < Search.MAX_DEPTH ? "depth:" + maxDepth : "search:" + timeBudgetMs;
+	}
+}
@@ -0,0 +1,539 @@
+package game.reversi.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many games at once on a few event loops
+ * <p>
+ * Each loop is one thread which owns a share of the sessions and runs every
+ * task for them in turn, so a session (see GameSession) is plain state with
+ * no locks, and the number of games is not tied to the number of threads. A
+ * session's id says which loop owns it and where in that loop's table it is,
+ * plus a count so the id of a closed session never finds the next one in its
+ * slot
+ * <p>
+ * Sides are played by an engine player, given like a Tournament player, or
+ * from outside ("external"): the listener is told when it is their turn and
+ * the move comes back through play. An engine move is queued as its own task,
+ * so one session's thinking never holds up the rest of the loop for more than
+ * a move. If an engine player throws or makes an illegal move the session is
+ * closed and the listener told
+ * <p>
+ * Usage: SessionHost [--sessions n] [--loops n] [--opponent spec], plays that
+ * many games at once of random external moves against the opponent and
+ * prints the memory per session and the throughput
+ */
+public class SessionHost
+{
+	/**
+	 * The player spec of a side whose moves come from outside
+	 */
+	public static final String EXTERNAL = "external";
+
+	/**
+	 * A session's id is ((generation << SLOT_BITS) | slot) * loops + loop
+	 */
+	private static final int SLOT_BITS = 32;
+	private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+	private static final int GENERATION_MASK = (1 << 24) - 1;
+
+	/**
+	 * The loops, a session's id modulo their number says which owns it
+	 */
+	private final Loop[] loops;
+
+	/**
+	 * Told when an external side is to move and when games end
+	 */
+	private final SessionListener listener;
+
+	/**
+	 * Spreads new sessions over the loops
+	 */
+	private final AtomicInteger nextLoop = new AtomicInteger();
+
+	/**
+	 * Open sessions
+	 */
+	private final AtomicInteger sessions = new AtomicInteger();
+
+	/**
+	 * Creates a host
+	 *
+	 * @param loops    The number of event loop threads
+	 * @param listener Told when an external side is to move and when games end
+	 */
+	public SessionHost(int loops, SessionListener listener)
+	{
+		this.listener = listener;
+		this.loops = new Loop[loops];
+		for (int loop = 0; loop < loops; loop++)
+		{
+			this.loops[loop] = new Loop(loop);
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int count = 10000;
+		int loopCount = Runtime.getRuntime().availableProcessors();
+		String opponent = "greedy";
+		for (int i = 0; i < args.length; i++)
+		{
+			switch (args[i])
+			{
+				case "--sessions":
+					count = Integer.parseInt(args[++i]);
+					break;
+				case "--loops":
+					loopCount = Integer.parseInt(args[++i]);
+					break;
+				case "--opponent":
+					opponent = args[++i];
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		/** Memory: sessions which are created and left waiting for their first move */
+		SessionHost idle = new SessionHost(loopCount, new SessionListener()
+		{
+			@Override
+			public void yourTurn(SessionHost host, GameSession session)
+			{
+			}
+
+			@Override
+			public void gameOver(SessionHost host, GameSession session)
+			{
+			}
+
+			@Override
+			public void failed(SessionHost host, GameSession session, RuntimeException error)
+			{
+			}
+		});
+		long before = usedMemory();
+		List<CompletableFuture<Long>> created = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+		{
+			created.add(idle.create(EXTERNAL, opponent));
+		}
+		for (CompletableFuture<Long> future : created)
+		{
+			future.join();
+		}
+		long after = usedMemory();
+		System.out.printf("%d sessions on %d loops: about %d bytes each%n", idle.getSessionCount(), loopCount,
+				(after - before) / count);
+		created.clear();
+		idle.shutdown();
+
+		/** Throughput: every game played at once, each external move answered as soon as it is asked for */
+		final CountDownLatch finished = new CountDownLatch(count);
+		final AtomicLong moves = new AtomicLong();
+		final AtomicLong blackDiscs = new AtomicLong();
+		final AtomicInteger failures = new AtomicInteger();
+		SessionHost host = new SessionHost(loopCount, new SessionListener()
+		{
+			@Override
+			public void yourTurn(SessionHost host, GameSession session)
+			{
+				long legal = Bitboard.legalMoves(session.getPlayer(), session.getOpponent());
+				for (int skip = ThreadLocalRandom.current().nextInt(Long.bitCount(legal)); skip > 0; skip--)
+				{
+					legal &= legal - 1;
+				}
+				host.play(session.getId(), Long.numberOfTrailingZeros(legal));
+			}
+
+			@Override
+			public void gameOver(SessionHost host, GameSession session)
+			{
+				moves.addAndGet(session.getPly());
+				blackDiscs.addAndGet(session.getResult());
+				host.close(session.getId());
+				finished.countDown();
+			}
+
+			@Override
+			public void failed(SessionHost host, GameSession session, RuntimeException error)
+			{
+				if (failures.getAndIncrement() == 0)
+				{
+					error.printStackTrace();
+				}
+				finished.countDown();
+			}
+		});
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++)
+		{
+			host.create(EXTERNAL, opponent);
+		}
+		finished.await();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		host.shutdown();
+
+		System.out.printf("%d games of random vs %s in %.2fs: %.0f games/s, %.0f moves/s, average discs %+.2f for black%n",
+				count, opponent, seconds, count / seconds, moves.get() / seconds, (double) blackDiscs.get() / count);
+		if (failures.get() > 0)
+		{
+			System.out.printf("%d games failed%n", failures.get());
+		}
+	}
+
+	/**
+	 * Opens a session at the starting position, on the next loop in turn
+	 *
+	 * @param blackSpec EXTERNAL or a Tournament player for black
+	 * @param whiteSpec EXTERNAL or a Tournament player for white
+	 *
+	 * @return The session's id, once it exists
+	 */
+	public CompletableFuture<Long> create(final String blackSpec, final String whiteSpec)
+	{
+		final Loop loop = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+		final CompletableFuture<Long> created = new CompletableFuture<>();
+		loop.executor.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				GameSession session;
+				try
+				{
+					session = loop.add(loop.player(blackSpec), loop.player(whiteSpec));
+				} catch (RuntimeException e)
+				{
+					created.completeExceptionally(e);
+					return;
+				}
+				sessions.incrementAndGet();
+				created.complete(session.getId());
+				advance(loop, session);
+			}
+		});
+		return created;
+	}
+
+	/**
+	 * Makes an external side's move
+	 *
+	 * @param id     The session
+	 * @param square The square to play
+	 *
+	 * @return True once the move is made | False if it is not an external side's turn or the move is illegal
+	 */
+	public CompletableFuture<Boolean> play(final long id, final int square)
+	{
+		final Loop loop = loopOf(id);
+		final CompletableFuture<Boolean> played = new CompletableFuture<>();
+		loop.executor.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				GameSession session = loop.get(id);
+				if (session == null)
+				{
+					played.completeExceptionally(new IllegalArgumentException("No session: " + id));
+					return;
+				}
+				if (session.isOver() || session.currentPlayer() != GameSession.EXTERNAL || session.play(square) == 0)
+				{
+					played.complete(false);
+					return;
+				}
+				played.complete(true);
+				advance(loop, session);
+			}
+		});
+		return played;
+	}
+
+	/**
+	 * Closes a session, finished or not
+	 *
+	 * @param id The session
+	 *
+	 * @return True once it is closed | False if there was no such session
+	 */
+	public CompletableFuture<Boolean> close(final long id)
+	{
+		final Loop loop = loopOf(id);
+		final CompletableFuture<Boolean> closed = new CompletableFuture<>();
+		loop.executor.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				boolean removed = loop.remove(id);
+				if (removed)
+				{
+					sessions.decrementAndGet();
+				}
+				closed.complete(removed);
+			}
+		});
+		return closed;
+	}
+
+	/**
+	 * Moves a session on after a change: tells the listener if the game is
+	 * over or waiting on an external move, otherwise queues the engine move
+	 *
+	 * @param loop    The loop owning the session, whose thread this is on
+	 * @param session The session
+	 */
+	private void advance(final Loop loop, final GameSession session)
+	{
+		if (session.isOver())
+		{
+			listener.gameOver(this, session);
+			return;
+		}
+
+		byte index = session.currentPlayer();
+		if (index == GameSession.EXTERNAL)
+		{
+			listener.yourTurn(this, session);
+			return;
+		}
+
+		final Player player = loop.players.get(index);
+		loop.executor.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				/** The session may have been closed while this waited */
+				if (loop.get(session.getId()) != session)
+				{
+					return;
+				}
+				try
+				{
+					int square = player.chooseMove(session.getPlayer(), session.getOpponent());
+					if (session.play(square) == 0)
+					{
+						throw new IllegalStateException("Player made an illegal move: " + square);
+					}
+				} catch (RuntimeException e)
+				{
+					/** Thrown out of the task it would only end the game silently, still counted as open */
+					if (loop.remove(session.getId()))
+					{
+						sessions.decrementAndGet();
+					}
+					listener.failed(SessionHost.this, session, e);
+					return;
+				}
+				advance(loop, session);
+			}
+		});
+	}
+
+	/**
+	 * Gets the loop owning a session
+	 */
+	private Loop loopOf(long id)
+	{
+		if (id < 0)
+		{
+			throw new IllegalArgumentException("No session: " + id);
+		}
+		return loops[(int) (id % loops.length)];
+	}
+
+	/**
+	 * Gets the number of open sessions
+	 */
+	public int getSessionCount()
+	{
+		return sessions.get();
+	}
+
+	/**
+	 * Stops the loops once the tasks already queued have run
+	 */
+	public void shutdown() throws InterruptedException
+	{
+		for (Loop loop : loops)
+		{
+			loop.executor.shutdown();
+		}
+		for (Loop loop : loops)
+		{
+			loop.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+		}
+	}
+
+	/**
+	 * Measures the heap in use after a collection
+	 */
+	private static long usedMemory() throws InterruptedException
+	{
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+		{
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * One event loop: its thread and the sessions and players only that thread touches
+	 */
+	private final class Loop
+	{
+		/**
+		 * The loop's position in loops
+		 */
+		private final int number;
+
+		/**
+		 * Runs every task for the loop's sessions, one at a time
+		 */
+		private final ExecutorService executor;
+
+		/**
+		 * Sessions by slot, and the slots free for reuse
+		 */
+		private GameSession[] table = new GameSession[64];
+		private int[] free = new int[64];
+		private int freeCount;
+		private int used;
+
+		/**
+		 * Counts sessions created, to tell apart sessions which used the same slot
+		 */
+		private int generation;
+
+		/**
+		 * Engine players, shared by the loop's sessions since they only move one at a time
+		 */
+		private final List<String> specs = new ArrayList<>();
+		private final List<Player> players = new ArrayList<>();
+
+		Loop(final int number)
+		{
+			this.number = number;
+			this.executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable task)
+				{
+					Thread thread = new Thread(task, "session-loop-" + number);
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+
+		/**
+		 * Gets the index of a player, creating it the first time its spec is seen
+		 *
+		 * @param spec EXTERNAL or a Tournament player
+		 *
+		 * @return The index, or GameSession.EXTERNAL
+		 */
+		byte player(String spec)
+		{
+			if (spec.equals(EXTERNAL))
+			{
+				return GameSession.EXTERNAL;
+			}
+
+			int index = specs.indexOf(spec);
+			if (index < 0)
+			{
+				if (specs.size() == Byte.MAX_VALUE)
+				{
+					throw new IllegalArgumentException("Too many different players: " + spec);
+				}
+				players.add(Tournament.createPlayer(spec, ThreadLocalRandom.current().nextLong()));
+				specs.add(spec);
+				index = specs.size() - 1;
+			}
+			return (byte) index;
+		}
+
+		/**
+		 * Creates a session in a free slot
+		 */
+		GameSession add(byte blackPlayer, byte whitePlayer)
+		{
+			int slot;
+			if (freeCount > 0)
+			{
+				slot = free[--freeCount];
+			} else
+			{
+				if (used == table.length)
+				{
+					GameSession[] bigger = new GameSession[table.length * 2];
+					System.arraycopy(table, 0, bigger, 0, table.length);
+					table = bigger;
+				}
+				slot = used++;
+			}
+
+			generation = (generation + 1) & GENERATION_MASK;
+			long key = ((long) generation << SLOT_BITS) | slot;
+			GameSession session = new GameSession(key * loops.length + number, blackPlayer, whitePlayer);
+			table[slot] = session;
+			return session;
+		}
+
+		/**
+		 * Gets a session, or null if it is not open
+		 */
+		GameSession get(long id)
+		{
+			long slot = (id / loops.length) & SLOT_MASK;
+			if (slot >= used)
+			{
+				return null;
+			}
+			GameSession session = table[(int) slot];
+			return session != null && session.getId() == id ? session : null;
+		}
+
+		/**
+		 * Closes a session, freeing its slot
+		 *
+		 * @return False if it was not open
+		 */
+		boolean remove(long id)
+		{
+			if (get(id) == null)
+			{
+				return false;
+			}
+
+			int slot = (int) ((id / loops.length) & SLOT_MASK);
+			table[slot] = null;
+			if (freeCount == free.length)
+			{
+				int[] bigger = new int[free.length * 2];
+				System.arraycopy(free, 0, bigger, 0, free.length);
+				free = bigger;
+			}
+			free[freeCount++] = slot;
+			return true;
+		}
+	}
+}
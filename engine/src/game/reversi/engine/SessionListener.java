@@ -0,0 +1,35 @@
+package game.reversi.engine;
+
+/**
+ * Told about hosted games as they move on
+ * <p>
+ * Calls are made on the session's event loop, so they must not block; a
+ * move made from a call, through SessionHost.play, is queued behind it
+ */
+public interface SessionListener
+{
+	/**
+	 * It is the turn of a side whose moves come from outside
+	 *
+	 * @param host    The host
+	 * @param session The session, only to be read during the call
+	 */
+	void yourTurn(SessionHost host, GameSession session);
+
+	/**
+	 * A game has finished, the session stays until it is closed
+	 *
+	 * @param host    The host
+	 * @param session The session, only to be read during the call
+	 */
+	void gameOver(SessionHost host, GameSession session);
+
+	/**
+	 * An engine player failed to move, so the session has been closed
+	 *
+	 * @param host    The host
+	 * @param session The session, only to be read during the call
+	 * @param error   What the player threw, or the illegal move it made
+	 */
+	void failed(SessionHost host, GameSession session, RuntimeException error);
+}
@@ -0,0 +1,165 @@
+package game.reversi.engine;
+
+/**
+ * The 8 symmetries of the board, as bitboard transforms
+ * <p>
+ * A symmetry is a number 0 - 7 made of three flags, applied in this order:
+ * TRANSPOSE swaps rows and columns, FLIP_ROWS turns row r into 7 - r and
+ * MIRROR_COLS turns column c into 7 - c. Symmetry 0 is the identity. The
+ * canonical form of a position is the transform with the smallest discs, so
+ * all 8 versions of a position share one canonical form
+ */
+public final class Symmetry
+{
+	/**
+	 * The number of symmetries
+	 */
+	public static final int COUNT = 8;
+
+	/**
+	 * Flags making up a symmetry
+	 */
+	public static final int MIRROR_COLS = 1;
+	public static final int FLIP_ROWS = 2;
+	public static final int TRANSPOSE = 4;
+
+	private Symmetry()
+	{
+	}
+
+	/**
+	 * Applies a symmetry to a bitboard
+	 *
+	 * @param bits     The bitboard
+	 * @param symmetry The symmetry, 0 - 7
+	 *
+	 * @return The transformed bitboard
+	 */
+	public static long transform(long bits, int symmetry)
+	{
+		if ((symmetry & TRANSPOSE) != 0)
+		{
+			bits = transpose(bits);
+		}
+		if ((symmetry & FLIP_ROWS) != 0)
+		{
+			bits = Long.reverseBytes(bits);
+		}
+		if ((symmetry & MIRROR_COLS) != 0)
+		{
+			bits = mirror(bits);
+		}
+		return bits;
+	}
+
+	/**
+	 * Applies a symmetry to a square
+	 *
+	 * @param square   The square, 0 - 63
+	 * @param symmetry The symmetry, 0 - 7
+	 *
+	 * @return The transformed square
+	 */
+	public static int transformSquare(int square, int symmetry)
+	{
+		int row = Bitboard.row(square);
+		int col = Bitboard.col(square);
+		if ((symmetry & TRANSPOSE) != 0)
+		{
+			int swap = row;
+			row = col;
+			col = swap;
+		}
+		if ((symmetry & FLIP_ROWS) != 0)
+		{
+			row = 7 - row;
+		}
+		if ((symmetry & MIRROR_COLS) != 0)
+		{
+			col = 7 - col;
+		}
+		return Bitboard.square(row, col);
+	}
+
+	/**
+	 * Undoes a symmetry on a square, so transformSquare(inverseSquare(s, x), x) == s
+	 *
+	 * @param square   The transformed square, 0 - 63
+	 * @param symmetry The symmetry, 0 - 7
+	 *
+	 * @return The original square
+	 */
+	public static int inverseSquare(int square, int symmetry)
+	{
+		int row = Bitboard.row(square);
+		int col = Bitboard.col(square);
+		if ((symmetry & MIRROR_COLS) != 0)
+		{
+			col = 7 - col;
+		}
+		if ((symmetry & FLIP_ROWS) != 0)
+		{
+			row = 7 - row;
+		}
+		if ((symmetry & TRANSPOSE) != 0)
+		{
+			int swap = row;
+			row = col;
+			col = swap;
+		}
+		return Bitboard.square(row, col);
+	}
+
+	/**
+	 * Finds the symmetry which gives the canonical form of a position, the
+	 * smallest player discs then the smallest opponent discs, both unsigned
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 *
+	 * @return The symmetry, 0 - 7, the lowest one if several give the same form
+	 */
+	public static int canonical(long player, long opponent)
+	{
+		int best = 0;
+		long bestPlayer = player;
+		long bestOpponent = opponent;
+		for (int symmetry = 1; symmetry < COUNT; symmetry++)
+		{
+			long p = transform(player, symmetry);
+			int compare = Long.compareUnsigned(p, bestPlayer);
+			if (compare < 0 || (compare == 0 && Long.compareUnsigned(transform(opponent, symmetry), bestOpponent) < 0))
+			{
+				best = symmetry;
+				bestPlayer = p;
+				bestOpponent = transform(opponent, symmetry);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Swaps rows and columns, square (r, c) goes to (c, r)
+	 */
+	private static long transpose(long bits)
+	{
+		long t = 0x0F0F0F0F00000000L & (bits ^ (bits << 28));
+		bits ^= t ^ (t >>> 28);
+		t = 0x3333000033330000L & (bits ^ (bits << 14));
+		bits ^= t ^ (t >>> 14);
+		t = 0x5500550055005500L & (bits ^ (bits << 7));
+		bits ^= t ^ (t >>> 7);
+		return bits;
+	}
+
+	/**
+	 * Reverses the columns of every row, square (r, c) goes to (r, 7 - c)
+	 */
+	private static long mirror(long bits)
+	{
+		bits = ((bits >>> 1) & 0x5555555555555555L) | ((bits & 0x5555555555555555L) << 1);
+		bits = ((bits >>> 2) & 0x3333333333333333L) | ((bits & 0x3333333333333333L) << 2);
+		bits = ((bits >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((bits & 0x0F0F0F0F0F0F0F0FL) << 4);
+		return bits;
+	}
+}
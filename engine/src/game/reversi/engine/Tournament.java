@@ -0,0 +1,429 @@
+package game.reversi.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays AI against AI with no windows, for checking evaluation changes
+ * <p>
+ * Games are shared out over a thread pool, each worker with its own pair of
+ * players, and the two players swap colours every game. Each game's random
+ * choices are seeded from --seed and the game's number, so a seed replays the
+ * same games on any number of threads, apart from timed search players, whose
+ * depth depends on the speed of the machine. Players are given as
+ * "greedy", "random", "search:[ms per move]", "patterns:[ms per move]" (search
+ * with the default pattern weights) or "depth:[plies]". With --record every
+ * game is appended to a game record file (see GameRecord)
+ * <p>
+ * Usage: Tournament playerA playerB [--games n] [--threads n] [--seed n] [--record file]
+ */
+public class Tournament
+{
+	/**
+	 * Transposition table size for each search player, in megabytes
+	 */
+	private static final int PLAYER_TABLE_MB = 4;
+
+	/**
+	 * The players, as given on the command line
+	 */
+	private final String playerA;
+	private final String playerB;
+
+	/**
+	 * Results
+	 */
+	private final AtomicInteger winsA = new AtomicInteger();
+	private final AtomicInteger winsB = new AtomicInteger();
+	private final AtomicInteger draws = new AtomicInteger();
+	private final AtomicLong discDifferenceA = new AtomicLong();
+
+	/**
+	 * Where finished games are written, may be null
+	 */
+	private GameRecordWriter recorder;
+
+	/**
+	 * Creates a tournament between two players
+	 *
+	 * @param playerA The first player's description
+	 * @param playerB The second player's description
+	 */
+	public Tournament(String playerA, String playerB)
+	{
+		/** Fail now rather than on a worker thread */
+		createPlayer(playerA, 0);
+		createPlayer(playerB, 0);
+
+		this.playerA = playerA;
+		this.playerB = playerB;
+	}
+
+	public static void main(String[] args) throws InterruptedException, IOException
+	{
+		if (args.length < 2)
+		{
+			System.err.println("Usage: Tournament playerA playerB [--games n] [--threads n] [--seed n] [--record file]");
+			System.exit(1);
+		}
+
+		int games = 1000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long seed = System.nanoTime();
+		String recordFile = null;
+		for (int i = 2; i < args.length; i += 2)
+		{
+			if (i + 1 >= args.length)
+			{
+				throw new IllegalArgumentException("Missing value for option: " + args[i]);
+			}
+			switch (args[i])
+			{
+				case "--games":
+					games = Integer.parseInt(args[i + 1]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[i + 1]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[i + 1]);
+					break;
+				case "--record":
+					recordFile = args[i + 1];
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		Tournament tournament = new Tournament(args[0], args[1]);
+		long recorded = 0;
+		long start = System.nanoTime();
+		/** A worker's failure is thrown rather than one from closing the file after it */
+		try (GameRecordWriter recorder = recordFile == null ? null : GameRecordWriter.open(Paths.get(recordFile)))
+		{
+			tournament.setRecorder(recorder);
+			tournament.play(games, threads, seed);
+			if (recorder != null)
+			{
+				recorder.flush();
+				recorded = recorder.getGames();
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		int played = tournament.getGames();
+		System.out.printf("%s vs %s: %d games on %d threads in %.2fs (%.0f games/s)%n",
+				args[0], args[1], played, threads, seconds, played / seconds);
+		if (recordFile != null)
+		{
+			System.out.printf("%d games recorded to %s%n", recorded, recordFile);
+		}
+		System.out.println(tournament.getSummary());
+	}
+
+	/**
+	 * Plays games and adds them to the results. If a worker fails, for an
+	 * illegal move or a record that could not be written, the others stop
+	 * after their current game and the first failure is thrown
+	 *
+	 * @param games   The number of games to play
+	 * @param threads The number of threads to play on
+	 * @param seed    Seed for the players' random choices, with the game number
+	 */
+	public void play(final int games, int threads, final long seed) throws InterruptedException
+	{
+		final AtomicInteger nextGame = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<?>> workers = new ArrayList<>(threads);
+
+		for (int worker = 0; worker < threads; worker++)
+		{
+			workers.add(pool.submit(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						playGames(games, nextGame, seed);
+					} catch (RuntimeException | Error e)
+					{
+						/** No more games for anyone */
+						nextGame.set(games);
+						throw e;
+					}
+				}
+			}));
+		}
+
+		pool.shutdown();
+		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+		for (Future<?> worker : workers)
+		{
+			try
+			{
+				worker.get();
+			} catch (ExecutionException e)
+			{
+				if (e.getCause() instanceof RuntimeException)
+				{
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException("Tournament worker failed", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Plays games on one worker until there are none left
+	 *
+	 * @param games    The number of games to play in all
+	 * @param nextGame The next game number to take
+	 * @param seed     Seed for the games, with the game number
+	 */
+	private void playGames(int games, AtomicInteger nextGame, long seed)
+	{
+		Player a = createPlayer(playerA, seed);
+		Player b = createPlayer(playerB, ~seed);
+		GameRecord gameRecord = recorder == null ? null : new GameRecord();
+
+		for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement())
+		{
+			/** Seed by the game rather than the worker, so it does not matter which worker gets it */
+			long gameSeed = seed + game * 0x9E3779B97F4A7C15L;
+			a.newGame(gameSeed);
+			b.newGame(~gameSeed);
+
+			/** Swap colours every game so neither player always goes first */
+			int result = (game & 1) == 0 ? playGame(a, b, gameRecord) : -playGame(b, a, gameRecord);
+			record(result);
+
+			if (gameRecord != null)
+			{
+				try
+				{
+					recorder.write(gameRecord);
+				} catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Plays one game from the starting position
+	 *
+	 * @param black The player with black, who moves first
+	 * @param white The player with white
+	 *
+	 * @return Black's discs minus white's discs at the end
+	 */
+	public static int playGame(Player black, Player white)
+	{
+		return playGame(black, white, null);
+	}
+
+	/**
+	 * Plays one game from the starting position, filling in a record of it
+	 *
+	 * @param black  The player with black, who moves first
+	 * @param white  The player with white
+	 * @param record The record to fill in, or null
+	 *
+	 * @return Black's discs minus white's discs at the end
+	 */
+	public static int playGame(Player black, Player white, GameRecord record)
+	{
+		long startNanos = 0;
+		if (record != null)
+		{
+			record.start(black.getName(), white.getName(), System.currentTimeMillis());
+			startNanos = System.nanoTime();
+		}
+
+		long toMove = Bitboard.START_BLACK;
+		long waiting = Bitboard.START_WHITE;
+		boolean blackToMove = true;
+		int passes = 0;
+
+		while (passes < 2)
+		{
+			/** The move mask decides passes and checks the player's move, so nothing is scanned twice */
+			long moves = Bitboard.legalMoves(toMove, waiting);
+			if (moves == 0)
+			{
+				passes++;
+			} else
+			{
+				int square = (blackToMove ? black : white).chooseMove(toMove, waiting);
+				if (square == Search.NO_MOVE || (moves & (1L << square)) == 0)
+				{
+					throw new IllegalStateException("Player made an illegal move: " + square);
+				}
+				long flips = Bitboard.flips(toMove, waiting, square);
+				toMove |= flips | (1L << square);
+				waiting ^= flips;
+				passes = 0;
+				if (record != null)
+				{
+					record.addMove(square);
+				}
+			}
+
+			long swap = toMove;
+			toMove = waiting;
+			waiting = swap;
+			blackToMove = !blackToMove;
+		}
+
+		int difference = Long.bitCount(toMove) - Long.bitCount(waiting);
+		int result = blackToMove ? difference : -difference;
+		if (record != null)
+		{
+			record.finish(result, (int) ((System.nanoTime() - startNanos) / 1000000));
+		}
+		return result;
+	}
+
+	/**
+	 * Sets where finished games are written
+	 *
+	 * @param recorder The writer, or null to not keep games
+	 */
+	public void setRecorder(GameRecordWriter recorder)
+	{
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Adds one game to the results
+	 *
+	 * @param result Player A's discs minus player B's discs
+	 */
+	private void record(int result)
+	{
+		if (result > 0)
+		{
+			winsA.incrementAndGet();
+		} else if (result < 0)
+		{
+			winsB.incrementAndGet();
+		} else
+		{
+			draws.incrementAndGet();
+		}
+		discDifferenceA.addAndGet(result);
+	}
+
+	/**
+	 * Creates a player from its description
+	 *
+	 * @param description "greedy", "random", "search:[ms per move]", "patterns:[ms per move]" or "depth:[plies]"
+	 * @param seed        Seed for any random choices
+	 *
+	 * @return A new player
+	 */
+	public static Player createPlayer(String description, long seed)
+	{
+		String[] parts = description.split(":", 2);
+		switch (parts[0])
+		{
+			case "greedy":
+				return new GreedyPlayer(seed);
+			case "random":
+				return new RandomPlayer(seed);
+			case "search":
+				return new SearchPlayer(new Search(playerTable()), Long.parseLong(requireArgument(parts)),
+						Search.MAX_DEPTH);
+			case "patterns":
+				return new SearchPlayer(description, new Search(playerTable(), PatternWeights.defaults()),
+						Long.parseLong(requireArgument(parts)), Search.MAX_DEPTH);
+			case "depth":
+				return new SearchPlayer(new Search(playerTable()), Search.NO_TIME_LIMIT,
+						Integer.parseInt(requireArgument(parts)));
+			default:
+				throw new IllegalArgumentException("Unknown player: " + description);
+		}
+	}
+
+	/**
+	 * Creates the transposition table for one search player
+	 */
+	private static TranspositionTable playerTable()
+	{
+		return new TranspositionTable(PLAYER_TABLE_MB, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+	}
+
+	/**
+	 * Gets the part of a player description after the colon
+	 */
+	private static String requireArgument(String[] parts)
+	{
+		if (parts.length < 2)
+		{
+			throw new IllegalArgumentException("Player needs a value: " + parts[0]);
+		}
+		return parts[1];
+	}
+
+	/** ------- */
+	/** Results */
+	/** ------- */
+
+	public int getWinsA()
+	{
+		return winsA.get();
+	}
+
+	public int getWinsB()
+	{
+		return winsB.get();
+	}
+
+	public int getDraws()
+	{
+		return draws.get();
+	}
+
+	/**
+	 * Gets the number of games finished
+	 */
+	public int getGames()
+	{
+		return getWinsA() + getWinsB() + getDraws();
+	}
+
+	/**
+	 * Summarises the results for printing
+	 */
+	public String getSummary()
+	{
+		int games = getGames();
+		return String.format("%s wins %d (%.1f%%) | draws %d (%.1f%%) | %s wins %d (%.1f%%) | average discs %+.2f for %s",
+				playerA, getWinsA(), percent(getWinsA(), games),
+				getDraws(), percent(getDraws(), games),
+				playerB, getWinsB(), percent(getWinsB(), games),
+				games == 0 ? 0 : (double) discDifferenceA.get() / games, playerA);
+	}
+
+	/**
+	 * Works out a percentage, 0 when there is nothing to divide by
+	 */
+	private static double percent(int part, int whole)
+	{
+		return whole == 0 ? 0 : 100.0 * part / whole;
+	}
+}
@@ -0,0 +1,300 @@
+package game.reversi.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size hash table of searched positions, keyed by Zobrist hash
+ * <p>
+ * Each entry is two longs: the key XORed with the data, and the data packed as
+ * score, depth, bound, best move and search generation. A probe only accepts an
+ * entry whose two halves agree, so a half written entry reads as a miss
+ */
+public class TranspositionTable
+{
+	/**
+	 * Which entries a store may overwrite
+	 */
+	public enum ReplacementPolicy
+	{
+		/**
+		 * Newest result always wins
+		 */
+		ALWAYS,
+		/**
+		 * Keep the deeper result, unless the old one is from an earlier search
+		 */
+		DEPTH_PREFERRED;
+
+		/**
+		 * Reads a policy from a command-line value
+		 *
+		 * @param name "always" or "depth"
+		 *
+		 * @return The matching policy
+		 */
+		public static ReplacementPolicy parse(String name)
+		{
+			switch (name.toLowerCase())
+			{
+				case "always":
+					return ALWAYS;
+				case "depth":
+					return DEPTH_PREFERRED;
+				default:
+					throw new IllegalArgumentException("Unknown replacement policy: " + name);
+			}
+		}
+	}
+
+	/**
+	 * Bound types
+	 */
+	public static final int LOWER = 1;
+	public static final int UPPER = 2;
+	public static final int EXACT = 3;
+
+	/**
+	 * Returned from probe when the position is not in the table
+	 */
+	public static final long MISS = 0;
+
+	/**
+	 * Default size, in megabytes
+	 */
+	public static final int DEFAULT_SIZE_MB = 16;
+
+	/**
+	 * Memory used by one entry, in bytes
+	 */
+	private static final int ENTRY_BYTES = 16;
+
+	/**
+	 * Entry storage
+	 */
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	private final ReplacementPolicy policy;
+
+	/**
+	 * Current search generation, lets old entries be replaced
+	 */
+	private int generation;
+
+	/**
+	 * Statistics
+	 */
+	private long probes;
+	private long hits;
+	private long stores;
+
+	/**
+	 * Creates a table using no more than the given memory
+	 *
+	 * @param sizeMb The memory cap, in megabytes
+	 * @param policy Which entries a store may overwrite
+	 */
+	public TranspositionTable(int sizeMb, ReplacementPolicy policy)
+	{
+		if (sizeMb < 1)
+		{
+			throw new IllegalArgumentException("Table size must be at least 1MB: " + sizeMb);
+		}
+
+		/** Largest power of two number of entries that fits */
+		long entries = Long.highestOneBit(sizeMb * 1024L * 1024L / ENTRY_BYTES);
+		entries = Math.min(entries, 1 << 30);
+
+		this.keys = new long[(int) entries];
+		this.data = new long[(int) entries];
+		this.mask = (int) entries - 1;
+		this.policy = policy;
+	}
+
+	/**
+	 * Creates a table of the default size with depth preferred replacement
+	 */
+	public TranspositionTable()
+	{
+		this(DEFAULT_SIZE_MB, ReplacementPolicy.DEPTH_PREFERRED);
+	}
+
+	/**
+	 * Marks the start of a new search so earlier entries can be replaced
+	 */
+	public void newSearch()
+	{
+		generation = (generation + 1) & 0xFF;
+	}
+
+	/**
+	 * Looks up a position
+	 *
+	 * @param hash The Zobrist hash of the position
+	 *
+	 * @return The packed entry, or MISS
+	 */
+	public long probe(long hash)
+	{
+		probes++;
+		int index = (int) hash & mask;
+		long entry = data[index];
+		if (entry != MISS && (keys[index] ^ entry) == hash)
+		{
+			hits++;
+			return entry;
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the result of searching a position
+	 *
+	 * @param hash  The Zobrist hash of the position
+	 * @param depth The depth searched
+	 * @param bound LOWER, UPPER or EXACT
+	 * @param score The score found
+	 * @param move  The best move found, or Search.NO_MOVE
+	 */
+	public void store(long hash, int depth, int bound, int score, int move)
+	{
+		int index = (int) hash & mask;
+
+		if (policy == ReplacementPolicy.DEPTH_PREFERRED)
+		{
+			long old = data[index];
+			if (old != MISS && generation(old) == generation && (keys[index] ^ old) != hash
+					    && depth(old) > depth)
+			{
+				return;
+			}
+		}
+
+		long entry = (score & 0xFFFFFFFFL)
+				             | ((long) (depth & 0xFF) << 32)
+				             | ((long) bound << 40)
+				             | ((long) (move + 1) << 42)
+				             | ((long) generation << 49);
+		data[index] = entry;
+		keys[index] = hash ^ entry;
+		stores++;
+	}
+
+	/**
+	 * Empties the table and its statistics
+	 */
+	public void clear()
+	{
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, 0);
+		probes = 0;
+		hits = 0;
+		stores = 0;
+	}
+
+	/** --------------- */
+	/** Entry unpacking */
+	/** --------------- */
+
+	/**
+	 * Gets the score of an entry
+	 */
+	public static int score(long entry)
+	{
+		return (int) entry;
+	}
+
+	/**
+	 * Gets the searched depth of an entry
+	 */
+	public static int depth(long entry)
+	{
+		return (int) (entry >>> 32) & 0xFF;
+	}
+
+	/**
+	 * Gets the bound type of an entry
+	 */
+	public static int bound(long entry)
+	{
+		return (int) (entry >>> 40) & 0x3;
+	}
+
+	/**
+	 * Gets the best move of an entry, or Search.NO_MOVE
+	 */
+	public static int move(long entry)
+	{
+		return ((int) (entry >>> 42) & 0x7F) - 1;
+	}
+
+	/**
+	 * Gets the search generation of an entry
+	 */
+	private static int generation(long entry)
+	{
+		return (int) (entry >>> 49) & 0xFF;
+	}
+
+	/** ---------- */
+	/** Statistics */
+	/** ---------- */
+
+	/**
+	 * Gets the number of entries the table holds
+	 */
+	public int getCapacity()
+	{
+		return keys.length;
+	}
+
+	/**
+	 * Gets the number of lookups made
+	 */
+	public long getProbes()
+	{
+		return probes;
+	}
+
+	/**
+	 * Gets the number of lookups which found their position
+	 */
+	public long getHits()
+	{
+		return hits;
+	}
+
+	/**
+	 * Gets the number of lookups which did not find their position
+	 */
+	public long getMisses()
+	{
+		return probes - hits;
+	}
+
+	/**
+	 * Gets the number of entries written
+	 */
+	public long getStores()
+	{
+		return stores;
+	}
+
+	/**
+	 * Gets the fraction of lookups which found their position
+	 */
+	public double getHitRate()
+	{
+		return probes == 0 ? 0 : (double) hits / probes;
+	}
+
+	/**
+	 * Summarises the statistics for printing
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("Transposition table: %d entries (%s), %d probes, %d hits, %d misses, %.1f%% hit rate",
+				getCapacity(), policy, probes, hits, getMisses(), getHitRate() * 100);
+	}
+}
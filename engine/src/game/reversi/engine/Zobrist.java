@@ -0,0 +1,97 @@
+package game.reversi.engine;
+
+/**
+ * 64-bit Zobrist hashing of positions
+ * <p>
+ * Discs of the side to move and of the side waiting have separate keys, so a
+ * hash covers both the board and whose turn it is. The keys are folded into
+ * tables of one byte of the bitboard at a time, making a hash 16 lookups
+ */
+public final class Zobrist
+{
+	/**
+	 * Seed for the keys, fixed so hashes are the same from run to run
+	 */
+	private static final long SEED = 0x5EED0F0DD5L;
+
+	/**
+	 * Combined keys for every value of each byte of the bitboards
+	 */
+	private static final long[][] PLAYER_KEYS = new long[8][256];
+	private static final long[][] OPPONENT_KEYS = new long[8][256];
+
+	static
+	{
+		long state = SEED;
+		long[] playerSquares = new long[Bitboard.SQUARES];
+		long[] opponentSquares = new long[Bitboard.SQUARES];
+		for (int square = 0; square < Bitboard.SQUARES; square++)
+		{
+			state += 0x9E3779B97F4A7C15L;
+			playerSquares[square] = mix(state);
+			state += 0x9E3779B97F4A7C15L;
+			opponentSquares[square] = mix(state);
+		}
+
+		for (int part = 0; part < 8; part++)
+		{
+			for (int value = 0; value < 256; value++)
+			{
+				for (int bit = 0; bit < 8; bit++)
+				{
+					if ((value & (1 << bit)) != 0)
+					{
+						PLAYER_KEYS[part][value] ^= playerSquares[part * 8 + bit];
+						OPPONENT_KEYS[part][value] ^= opponentSquares[part * 8 + bit];
+					}
+				}
+			}
+		}
+	}
+
+	private Zobrist()
+	{
+	}
+
+	/**
+	 * Hashes a position
+	 *
+	 * @param player   The discs of the side to move
+	 * @param opponent The discs of the side waiting
+	 *
+	 * @return The 64-bit hash
+	 */
+	public static long hash(long player, long opponent)
+	{
+		long hash = 0;
+		for (int part = 0; part < 8; part++)
+		{
+			hash ^= PLAYER_KEYS[part][(int) (player >>> (part * 8)) & 0xFF]
+					        ^ OPPONENT_KEYS[part][(int) (opponent >>> (part * 8)) & 0xFF];
+		}
+		return hash;
+	}
+
+	/**
+	 * Hashes a board with a side to move
+	 *
+	 * @param board  The board
+	 * @param toMove The colour to move
+	 *
+	 * @return The 64-bit hash
+	 */
+	public static long hash(BoardState board, byte toMove)
+	{
+		return hash(board.discs(toMove), board.discs(BoardState.opponent(toMove)));
+	}
+
+	/**
+	 * SplitMix64 finaliser, spreads a counter into a random looking key
+	 */
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
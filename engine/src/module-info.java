@@ -0,0 +1,7 @@
+/**
+ * The Reversi rules, search and self-play, with no user interface
+ */
+module game.reversi.engine
+{
+	exports game.reversi.engine;
+}
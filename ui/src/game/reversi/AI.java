@@ -0,0 +1,350 @@
+package game.reversi;
+
+import game.reversi.engine.Bitboard;
+import game.reversi.engine.Board;
+import game.reversi.engine.BoardState;
+import game.reversi.engine.MoveSearch;
+import game.reversi.engine.OpeningBook;
+import game.reversi.engine.ParallelSearch;
+import game.reversi.engine.PatternWeights;
+import game.reversi.engine.Search;
+import game.reversi.engine.TranspositionTable;
+import game.reversi.metrics.AiMoveEvent;
+import game.reversi.metrics.CheckBoardEvent;
+import game.reversi.metrics.GameMetrics;
+import game.reversi.metrics.Metrics;
+import game.reversi.metrics.Trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class AI
+{
+	/**
+	 * How long the search player may think per move, in milliseconds
+	 */
+	public static final long SEARCH_TIME_MS = 1000;
+
+	/**
+	 * The main game object
+	 */
+	private Game game;
+
+	/**
+	 * Alpha-beta search used by the search player
+	 */
+	private final MoveSearch search;
+
+	/**
+	 * Book the search player plays from before it searches, may be null
+	 */
+	private final OpeningBook book;
+
+	/**
+	 * Nodes and depth of the last search, 0 after a book move
+	 */
+	private long lastNodes;
+	private int lastDepth;
+
+	/**
+	 * Constructor
+	 *
+	 * @param game    The main game object
+	 * @param table   The transposition table for the search player
+	 * @param threads The number of threads the search player uses
+	 * @param book    The opening book for the search player, or null for none
+	 * @param weights The pattern weights for the search player, or null for the square weights
+	 */
+	public AI(Game game, TranspositionTable table, int threads, OpeningBook book, PatternWeights weights)
+	{
+		this.game = game;
+		this.book = book;
+		if (threads > 1)
+		{
+			this.search = new ParallelSearch(threads, table, weights);
+		} else
+		{
+			this.search = new Search(table, weights);
+		}
+	}
+
+	/**
+	 * Searches all squares and determines the square that will yield the most
+	 * flipped counters and makes the move, on a board of any size
+	 *
+	 * @param color The opponent's colour
+	 * @param board The game board
+	 *
+	 * @return True - Move was made | False - No possible moves
+	 */
+	public boolean makeGreedyMove(byte color, Board board)
+	{
+		AiMoveEvent event = new AiMoveEvent();
+		event.begin();
+		long start = Metrics.now();
+
+		boolean moved = board instanceof BoardState ? greedyMove(color, (BoardState) board) : greedyMove(color, board);
+		GameMetrics.greedyMove(event, start, moved);
+		return moved;
+	}
+
+	/**
+	 * Makes the greedy move on a board of any size, square by square
+	 *
+	 * @param color The opponent's colour
+	 * @param board The game board
+	 *
+	 * @return True - Move was made | False - No possible moves
+	 */
+	private boolean greedyMove(byte color, Board board)
+	{
+		byte player = BoardState.opponent(color);
+		int size = board.size();
+
+		int bestNoFlipped = 0;
+		int bestRow = -1;
+		int bestCol = -1;
+		int tmpNoFlipped;
+
+		for (int row = 0; row < size; row++)
+		{
+			for (int col = 0; col < size; col++)
+			{
+				tmpNoFlipped = board.flipCount(player, row, col);
+				/** If tmp is better than best or if is the same then flip a coin whether to use the new value */
+				if ((tmpNoFlipped > bestNoFlipped)
+						    || (tmpNoFlipped > 0 && tmpNoFlipped == bestNoFlipped
+								        && ThreadLocalRandom.current().nextInt(0, 2) == 0)
+						)
+				{
+					bestNoFlipped = tmpNoFlipped;
+					bestRow = row;
+					bestCol = col;
+				}
+			}
+		}
+
+		if (bestNoFlipped > 0)
+		{
+			board.play(player, bestRow, bestCol);
+			GameMetrics.move("greedy", bestRow, bestCol, bestNoFlipped);
+			return true;
+		} else
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Makes the greedy move on a bitboard, trying only the legal squares
+	 *
+	 * @param color The opponent's colour
+	 * @param board The game board
+	 *
+	 * @return True - Move was made | False - No possible moves
+	 */
+	private boolean greedyMove(byte color, BoardState board)
+	{
+		byte player = BoardState.opponent(color);
+
+		int bestNoFlipped = -1;
+		int bestSquare = -1;
+		int tmpNoFlipped;
+
+		long moves = board.legalMoves(player);
+		while (moves != 0)
+		{
+			int square = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+
+			tmpNoFlipped = Long.bitCount(board.flips(player, square));
+			/** If tmp is better than best or if is the same then flip a coin whether to use the new value */
+			if ((tmpNoFlipped > bestNoFlipped)
+					    || (tmpNoFlipped == bestNoFlipped && ThreadLocalRandom.current().nextInt(0, 2) == 0)
+					)
+			{
+				bestNoFlipped = tmpNoFlipped;
+				bestSquare = square;
+			}
+		}
+
+		if (bestNoFlipped > 0)
+		{
+			board.play(player, bestSquare);
+			GameMetrics.move("greedy", Bitboard.row(bestSquare), Bitboard.col(bestSquare), bestNoFlipped);
+			return true;
+		} else
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Plays a searched move on an 8x8 board, the search only knows that size,
+	 * and a greedy move on any other
+	 *
+	 * @param color The opponent's colour
+	 * @param board The game board
+	 *
+	 * @return True - Move was made | False - No possible moves
+	 */
+	public boolean makeSearchMove(byte color, Board board)
+	{
+		if (!(board instanceof BoardState) || board.size() != Bitboard.SIZE)
+		{
+			Trace.event("No search for a %dx%d board, playing greedy", board.size(), board.size());
+			return makeGreedyMove(color, board);
+		}
+
+		AiMoveEvent event = new AiMoveEvent();
+		event.begin();
+		long start = Metrics.now();
+
+		boolean moved = searchMove(color, (BoardState) board);
+		GameMetrics.searchMove(event, start, moved, lastNodes, lastDepth);
+		return moved;
+	}
+
+	/**
+	 * Plays a book move if there is one, otherwise runs an alpha-beta search
+	 * within the time budget and makes the best move found
+	 *
+	 * @param color The opponent's colour
+	 * @param board The game board
+	 *
+	 * @return True - Move was made | False - No possible moves
+	 */
+	private boolean searchMove(byte color, BoardState board)
+	{
+		byte player = BoardState.opponent(color);
+		lastNodes = 0;
+		lastDepth = 0;
+
+		if (book != null)
+		{
+			int square = book.lookup(board.discs(player), board.discs(color));
+			if (square != Search.NO_MOVE)
+			{
+				Trace.event("Book move %d", square);
+				playSearched(player, square, board);
+				return true;
+			}
+		}
+
+		int square = search.findBestMove(board.discs(player), board.discs(color), SEARCH_TIME_MS);
+		lastNodes = search.getNodes();
+		lastDepth = search.getCompletedDepth();
+		Trace.event("Search depth %d, %d nodes", lastDepth, lastNodes);
+
+		if (square == Search.NO_MOVE)
+		{
+			return false;
+		}
+		playSearched(player, square, board);
+		return true;
+	}
+
+	/**
+	 * Plays a move from the book or the search
+	 *
+	 * @param player The colour to move
+	 * @param square The square to play
+	 * @param board  The game board
+	 */
+	private void playSearched(byte player, int square, BoardState board)
+	{
+		long flips = board.play(player, square);
+		GameMetrics.move("search", Bitboard.row(square), Bitboard.col(square), Long.bitCount(flips));
+	}
+
+	/**
+	 * Checks the board if there is a possible move
+	 *
+	 * @param color The opponent's colour
+	 * @param board The game board
+	 *
+	 * @return True - There is a possible move | False - No playable moves
+	 */
+	public boolean checkBoard(byte color, Board board)
+	{
+		CheckBoardEvent event = new CheckBoardEvent();
+		event.begin();
+		long start = Metrics.now();
+
+		boolean moves = board.hasMoves(BoardState.opponent(color));
+		GameMetrics.checkBoard(event, start, moves);
+		Trace.event("Moves: %d", moves ? 1 : 0);
+		return moves;
+	}
+
+	/**
+	 * Checks the surrounding area for at least one possible move
+	 *
+	 * @param currentRow The current row position of selected square
+	 * @param currentCol The current column position of the selected square
+	 * @param color      The opponent's colour
+	 * @param board      The game board
+	 * @param toCount    If the function should count number of flipped counters or make a move
+	 *
+	 * @return The number of tiles that can be gained from this position
+	 */
+	public int checkArea(int currentRow, int currentCol,
+	                     byte color, Board board,
+	                     boolean toCount)
+	{
+		byte player = BoardState.opponent(color);
+
+		int flipped = toCount ? board.flipCount(player, currentRow, currentCol)
+				              : board.play(player, currentRow, currentCol);
+		if (flipped != 0)
+		{
+			Trace.event("Found possible move x y: %d %d", currentRow, currentCol);
+			if (!toCount)
+			{
+				GameMetrics.move("human", currentRow, currentCol, flipped);
+			}
+		}
+		return flipped;
+	}
+
+	/**
+	 * Given a unit vector and a initial position, continues in the direction to see if there is a valid move
+	 *
+	 * @param currentRow The selected row
+	 * @param currentCol The selected column
+	 * @param color      The opponent's colour
+	 * @param board      The game board
+	 * @param rowDirUnit The row unit direction
+	 * @param colDirUnit The column unit direction
+	 * @param toCount    Should the function count the number of flipped counters or make the move
+	 *
+	 * @return The number of counters that can be flipped
+	 */
+	public int checkDirection(int currentRow, int currentCol, byte color, BoardState board,
+	                          int rowDirUnit, int colDirUnit,
+	                          boolean toCount)
+	{
+		int dir = Bitboard.direction(colDirUnit, rowDirUnit);
+		if (dir < 0 || board.get(currentRow, currentCol) != BoardState.EMPTY)
+		{
+			return 0;
+		}
+
+		byte player = BoardState.opponent(color);
+		long flips = Bitboard.flipsInDirection(board.discs(player), board.discs(color),
+				Bitboard.bit(currentRow, currentCol), dir);
+		if (flips == 0)
+		{
+			Trace.event("Invalid search path");
+			return 0;
+		}
+
+		/** Found a valid move */
+		Trace.event("Found valid search path");
+		if (!toCount)
+		{
+			board.apply(player, Bitboard.square(currentRow, currentCol), flips);
+			GameMetrics.move("human", currentRow, currentCol, Long.bitCount(flips));
+		}
+		return Long.bitCount(flips);
+	}
+}
@@ -0,0 +1,646 @@
+package game.reversi;
+
+import game.reversi.counters.BoardView;
+import game.reversi.engine.Bitboard;
+import game.reversi.engine.Board;
+import game.reversi.engine.BoardState;
+import game.reversi.engine.OpeningBook;
+import game.reversi.engine.PatternWeights;
+import game.reversi.engine.TranspositionTable;
+import game.reversi.metrics.GameMetrics;
+import game.reversi.metrics.Metrics;
+import game.reversi.metrics.SyncBoardsEvent;
+import game.reversi.metrics.Trace;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// TODO Reset game
+// TODO Timer?
+// TODO Customisation
+// TODO Change size of board?
+// TODO AI difficulty
+
+public class Game
+{
+	/**
+	 * The player whose turn it is, 1 (black) or 2 (white), and if the game is over
+	 */
+	public int player;
+	public boolean gameWon;
+
+	/**
+	 * Moves waiting to be made by the game loop, from clicks and the AI buttons
+	 */
+	private final BlockingQueue<Runnable> moves = new LinkedBlockingQueue<>();
+
+	/**
+	 * The board the rules run on, the discs only show it
+	 */
+	private final Board board;
+
+	/**
+	 * The discs the grids were last synced to, so only changes are pushed. A
+	 * bitboard is compared two masks at a time, any other board cell by cell
+	 */
+	private long shownBlack;
+	private long shownWhite;
+	private final byte[] shown;
+
+	/**
+	 * The squares which changed in the last sync, as row * size + column
+	 */
+	private final int[] changed;
+
+	/**
+	 * What each player sees the board on
+	 */
+	private BoardView p1_view;
+	private BoardView p2_view;
+
+	/**
+	 * Label
+	 */
+	private JLabel p1_label_player;
+	private JLabel p2_label_player;
+	private JLabel p1_label_score;
+	private JLabel p2_label_score;
+
+	/**
+	 * AI
+	 */
+	private AI ai;
+
+	/**
+	 * Transposition table shared by every search the AI makes
+	 */
+	private final TranspositionTable transpositionTable;
+
+	/**
+	 * Number of threads the search AI uses
+	 */
+	private final int searchThreads;
+
+	/**
+	 * Book the search AI plays from in the opening, may be null
+	 */
+	private final OpeningBook openingBook;
+
+	/**
+	 * Weights the search AI evaluates with, may be null
+	 */
+	private final PatternWeights patternWeights;
+
+	/**
+	 * Creates a game with a default sized transposition table and a single threaded search
+	 */
+	public Game()
+	{
+		this(new TranspositionTable(), 1);
+	}
+
+	/**
+	 * Creates a game
+	 *
+	 * @param transpositionTable The transposition table for the search AI
+	 * @param searchThreads      The number of threads the search AI uses
+	 */
+	public Game(TranspositionTable transpositionTable, int searchThreads)
+	{
+		this(transpositionTable, searchThreads, null, null);
+	}
+
+	/**
+	 * Creates a game
+	 *
+	 * @param transpositionTable The transposition table for the search AI
+	 * @param searchThreads      The number of threads the search AI uses
+	 * @param openingBook        The book the search AI plays from, or null for none
+	 * @param patternWeights     The weights the search AI evaluates with, or null for the square weights
+	 */
+	public Game(TranspositionTable transpositionTable, int searchThreads, OpeningBook openingBook,
+	            PatternWeights patternWeights)
+	{
+		this(transpositionTable, searchThreads, openingBook, patternWeights, Bitboard.SIZE);
+	}
+
+	/**
+	 * Creates a game on a board of any size
+	 *
+	 * @param transpositionTable The transposition table for the search AI
+	 * @param searchThreads      The number of threads the search AI uses
+	 * @param openingBook        The book the search AI plays from, or null for none
+	 * @param patternWeights     The weights the search AI evaluates with, or null for the square weights
+	 * @param size               The number of rows and columns, even, 4 - 16
+	 */
+	public Game(TranspositionTable transpositionTable, int searchThreads, OpeningBook openingBook,
+	            PatternWeights patternWeights, int size)
+	{
+		this.board = Board.create(size);
+		this.shown = new byte[size * size];
+		this.changed = new int[size * size];
+		this.transpositionTable = transpositionTable;
+		this.searchThreads = searchThreads;
+		this.openingBook = openingBook;
+		this.patternWeights = patternWeights;
+	}
+
+	/**
+	 * Initialises the global variables
+	 *
+	 * @param p1_view           The board shown to player one
+	 * @param p1_label_player   The label which displays player one's turn
+	 * @param p1_label_score    The label which displays the score for player one
+	 * @param p1_button_ai      The button which makes a greedy move for player one
+	 * @param p1_button_search  The button which makes a searched move for player one
+	 * @param p2_view           The board shown to player two
+	 * @param p2_label_player   The label which displays player two's turn
+	 * @param p2_label_score    The label which displays the score for player two
+	 * @param p2_button_ai      The button which makes a greedy move for player two
+	 * @param p2_button_search  The button which makes a searched move for player two
+	 */
+	public void initialise(
+			                      BoardView p1_view, JLabel p1_label_player, JLabel p1_label_score,
+			                      JButton p1_button_ai, JButton p1_button_search,
+			                      BoardView p2_view, JLabel p2_label_player, JLabel p2_label_score,
+			                      JButton p2_button_ai, JButton p2_button_search)
+	{
+		this.p1_view = p1_view;
+		this.p1_label_player = p1_label_player;
+		this.p1_label_score = p1_label_score;
+
+		this.p2_view = p2_view;
+		this.p2_label_player = p2_label_player;
+		this.p2_label_score = p2_label_score;
+
+		/** Buttons - the moves are made on the game loop thread, never on the EDT */
+		p1_button_ai.addActionListener(new AiButtonHandler(1, false));
+		p2_button_ai.addActionListener(new AiButtonHandler(2, false));
+		p1_button_search.addActionListener(new AiButtonHandler(1, true));
+		p2_button_search.addActionListener(new AiButtonHandler(2, true));
+
+		/** Creates an ai object */
+		this.ai = new AI(this, transpositionTable, searchThreads, openingBook, patternWeights);
+	}
+
+	/**
+	 * Hooks up a pair of undo and redo buttons, the moves are taken back on the game loop thread
+	 *
+	 * @param button_undo The button which takes back the last move
+	 * @param button_redo The button which plays again the last move taken back
+	 */
+	public void addUndoButtons(JButton button_undo, JButton button_redo)
+	{
+		button_undo.addActionListener(new UndoButtonHandler(false));
+		button_redo.addActionListener(new UndoButtonHandler(true));
+	}
+
+	/**
+	 * Resets the game board
+	 */
+	public void resetGame()
+	{
+		/** Drops any moves from the last game */
+		moves.clear();
+		/** Set player one goes first */
+		player = 1;
+
+		/** Sets up the initial four counters */
+		board.reset();
+
+		/** Shows the board on both players' discs */
+		syncBoards();
+
+		/** Sets labels */
+		p1_label_player.setText("Your Turn (Black)");
+		p2_label_player.setText("Not Your Turn");
+		updateScoreLabel(p1_label_score);
+		updateScoreLabel(p2_label_score);
+	}
+
+	/**
+	 * Is the main game loop to run all the logic
+	 */
+	public void gameLoop()
+	{
+		gameWon = false;
+		boolean autoPlay = false;
+
+		do
+		{
+			if (autoPlay)
+			{
+				if (player == 1)
+				{
+					ai.makeGreedyMove(BoardState.WHITE, board);
+				} else // Player 2
+				{
+					ai.makeGreedyMove(BoardState.BLACK, board);
+				}
+				changePlayer();
+
+				sleep(200);
+			} else
+			{
+				/** Waits for the next move without spinning */
+				Runnable move = takeMove();
+				if (move != null)
+				{
+					move.run();
+				}
+			}
+		} while (!gameWon);
+
+		/** Game has ended */
+		System.out.println("Won");
+		if (countBlack(board) > countWhite(board))
+		{
+			/** Player black has won */
+			p1_label_player.setText("YOU WON!");
+			p2_label_player.setText("You Lost");
+			/** Message box to show winner */
+			JOptionPane.showMessageDialog(null, "Black Won!", "Winner", JOptionPane.INFORMATION_MESSAGE);
+		} else if (countBlack(board) < countWhite(board))
+		{
+			/** Player white has won */
+			p1_label_player.setText("You Lost");
+			p2_label_player.setText("YOU WON!");
+			/** Message box to show winner */
+			JOptionPane.showMessageDialog(null, "White Won!", "Winner", JOptionPane.INFORMATION_MESSAGE);
+		} else
+		{
+			/** The game is a tie */
+			p1_label_player.setText("YOU TIED!");
+			p2_label_player.setText("YOU TIED!");
+			/** Message box to show tie */
+			JOptionPane.showMessageDialog(null, "The Game is Tied!", "Winner", JOptionPane.INFORMATION_MESSAGE);
+		}
+
+		Trace.event("WON!");
+	}
+
+	/**
+	 * Synchronises both players' views with the board state, only passing on the
+	 * squares which changed since the last sync - the placed and flipped discs
+	 */
+	public synchronized void syncBoards()
+	{
+		SyncBoardsEvent event = new SyncBoardsEvent();
+		event.begin();
+		long start = Metrics.now();
+
+		int size = board.size();
+		int count = 0;
+		if (board instanceof BoardState)
+		{
+			BoardState bits = (BoardState) board;
+			long changedBits = (shownBlack ^ bits.getBlack()) | (shownWhite ^ bits.getWhite());
+			while (changedBits != 0)
+			{
+				int square = Long.numberOfTrailingZeros(changedBits);
+				changedBits &= changedBits - 1;
+
+				changed[count++] = Bitboard.row(square) * size + Bitboard.col(square);
+			}
+			shownBlack = bits.getBlack();
+			shownWhite = bits.getWhite();
+		} else
+		{
+			for (int row = 0; row < size; row++)
+			{
+				for (int col = 0; col < size; col++)
+				{
+					byte state = board.get(row, col);
+					if (state != shown[row * size + col])
+					{
+						shown[row * size + col] = state;
+						changed[count++] = row * size + col;
+					}
+				}
+			}
+		}
+
+		p1_view.showChanges(board, changed, count);
+		p2_view.showChanges(board, changed, count);
+		GameMetrics.syncBoards(event, start, count);
+	}
+
+	/**
+	 * Changes the player, the labels on each window and syncs the boards. A
+	 * player with no legal move passes and the same player goes again, and the
+	 * game is over once neither player can move
+	 */
+	public synchronized void changePlayer()
+	{
+		syncBoards();
+
+		/** Both colours' moves come from the one cached calculation on the board */
+		byte mover = player == 1 ? BoardState.BLACK : BoardState.WHITE;
+		byte next = board.nextToMove(mover);
+		if (next == BoardState.EMPTY)
+		{
+			gameWon = true;
+			updateScoreLabel(p1_label_score);
+			updateScoreLabel(p2_label_score);
+			return;
+		}
+
+		player = next == BoardState.BLACK ? 1 : 2;
+		showTurn();
+
+		if (next == mover)
+		{
+			/** The other player has no moves so passes */
+			Trace.event("Player %d passes", 3 - player);
+			(player == 1 ? p2_label_player : p1_label_player).setText("No Moves, You Pass");
+		}
+	}
+
+	/**
+	 * Sets the turn and score labels on each window for the current player
+	 */
+	private void showTurn()
+	{
+		if (player == 1)
+		{
+			p1_label_player.setText("Your Turn (Black)");
+			p2_label_player.setText("Not Your Turn");
+		} else
+		{
+			p1_label_player.setText("Not Your Turn");
+			p2_label_player.setText("Your Turn (White)");
+		}
+		updateScoreLabel(p1_label_score);
+		updateScoreLabel(p2_label_score);
+	}
+
+	/**
+	 * Takes back or plays again a move, and gives the turn to whoever it then belongs to
+	 *
+	 * @param redo True - play the move again | False - take it back
+	 */
+	private synchronized void undoMove(boolean redo)
+	{
+		int ply = board.getPly();
+		if (redo ? !board.redo() : !board.undo())
+		{
+			Trace.event(redo ? "No move to redo" : "No move to undo");
+			return;
+		}
+
+		/** A move taken back is to be made again by its colour, a move redone passes the turn on */
+		byte mover = board.getMoveColor(redo ? ply : ply - 1);
+		player = mover == BoardState.BLACK ? 1 : 2;
+		if (redo)
+		{
+			changePlayer();
+		} else
+		{
+			syncBoards();
+			showTurn();
+		}
+	}
+
+	/**
+	 * Queues a click on a square for the game loop
+	 *
+	 * @param row      row value
+	 * @param col      column value
+	 * @param boardNum Which board was clicked
+	 */
+	public void submitMove(final int row, final int col, final int boardNum)
+	{
+		Trace.event("current row col board: %d %d %d", row, col, boardNum);
+		final long clicked = GameMetrics.clickTime();
+		moves.add(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				if (makeHumanMove(row, col, boardNum))
+				{
+					GameMetrics.afterRender(clicked);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Makes a clicked move if it is that board's turn and the move is legal
+	 *
+	 * @param row      row value
+	 * @param col      column value
+	 * @param boardNum Which board was clicked
+	 *
+	 * @return True - the move was made | False - not this board's turn or an illegal move
+	 */
+	private boolean makeHumanMove(int row, int col, int boardNum)
+	{
+		/** Check which player's turn */
+		if (player == 1 && boardNum == 1) // Player 1  Black
+		{
+			Trace.event("Player 1");
+			/** If there is a black disc around the selected square */
+			if (ai.checkArea(row, col, BoardState.WHITE, board, false) != 0)
+			{
+				changePlayer();
+				return true;
+			}
+		} else if (player == 2 && boardNum == 2) // Player 2  White
+		{
+			Trace.event("Player 2");
+			/** If there is a white disc around the selected square */
+			if (ai.checkArea(row, col, BoardState.BLACK, board, false) != 0)
+			{
+				changePlayer();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Makes an AI move if it is that player's turn
+	 *
+	 * @param forPlayer The player the button belongs to
+	 * @param search    True - alpha-beta search | False - greedy
+	 */
+	private void makeAiMove(int forPlayer, boolean search)
+	{
+		if (player != forPlayer)
+		{
+			return;
+		}
+
+		/** Player one is black so the opponent is white */
+		byte opponent = forPlayer == 1 ? BoardState.WHITE : BoardState.BLACK;
+		boolean moved = search ? ai.makeSearchMove(opponent, board) : ai.makeGreedyMove(opponent, board);
+		if (moved)
+		{
+			changePlayer();
+		} else
+		{
+			Trace.event("No possible moves");
+		}
+	}
+
+	/**
+	 * Waits for the next queued move
+	 *
+	 * @return The move, or null if the wait was interrupted
+	 */
+	private Runnable takeMove()
+	{
+		try
+		{
+			return moves.take();
+		} catch (InterruptedException e)
+		{
+			Trace.event("Waiting for a move failed");
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Updates the scores label
+	 */
+	public void updateScoreLabel(JLabel score)
+	{
+		score.setText("Black = " + countBlack(board) + " | " + countWhite(board) + " = White");
+	}
+
+	/**
+	 * Counts the number of white iscs on the board
+	 *
+	 * @return Number of white counters
+	 */
+	public int countWhite(Board board)
+	{
+		return board.count(BoardState.WHITE);
+	}
+
+	/**
+	 * Count the number of black counters on the board
+	 *
+	 * @return The number of black counters
+	 */
+	public int countBlack(Board board)
+	{
+		return board.count(BoardState.BLACK);
+	}
+
+	/**
+	 * Gets the transposition table used by the search AI
+	 *
+	 * @return The transposition table
+	 */
+	public TranspositionTable getTranspositionTable()
+	{
+		return transpositionTable;
+	}
+
+	/**
+	 * Gets the board the game is played on
+	 *
+	 * @return The board state
+	 */
+	public Board getBoard()
+	{
+		return board;
+	}
+
+	/** Helper functions */
+
+	/**
+	 * Sleeps for a specified number of ms
+	 *
+	 * @param milliseconds Number of ms to let the program sleep for
+	 */
+	public void sleep(int milliseconds)
+	{
+		try
+		{
+			Thread.sleep(milliseconds);
+		} catch (InterruptedException e)
+		{
+			Trace.event("Sleep failed");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * The AI button press handler
+	 */
+	private class AiButtonHandler implements ActionListener
+	{
+		/**
+		 * The player the button belongs to
+		 */
+		private final int forPlayer;
+		/**
+		 * True - alpha-beta search | False - greedy
+		 */
+		private final boolean search;
+
+		AiButtonHandler(int forPlayer, boolean search)
+		{
+			this.forPlayer = forPlayer;
+			this.search = search;
+		}
+
+		/**
+		 * Queues the AI move for the game loop
+		 *
+		 * @param e Action event
+		 */
+		public void actionPerformed(ActionEvent e)
+		{
+			Trace.event("Button %d pressed", forPlayer);
+			moves.add(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					makeAiMove(forPlayer, search);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Queues taking back or replaying a move when an undo or redo button is pressed
+	 */
+	private class UndoButtonHandler implements ActionListener
+	{
+		/**
+		 * True - redo | False - undo
+		 */
+		private final boolean redo;
+
+		UndoButtonHandler(boolean redo)
+		{
+			this.redo = redo;
+		}
+
+		/**
+		 * Queues the undo or redo for the game loop
+		 *
+		 * @param e Action event
+		 */
+		public void actionPerformed(ActionEvent e)
+		{
+			moves.add(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					undoMove(redo);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package game.reversi;
+
+import game.reversi.counters.BoardComponent;
+import game.reversi.counters.BoardView;
+import game.reversi.counters.Disc;
+import game.reversi.counters.DiscGrid;
+import game.reversi.engine.Bitboard;
+import game.reversi.engine.Board;
+import game.reversi.engine.OpeningBook;
+import game.reversi.engine.PatternWeights;
+import game.reversi.engine.TranspositionTable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class Main
+{
+
+	public static void main(String[] args) throws IOException
+	{
+		System.out.println("Hello Darkness");
+
+		/** Reads command-line options */
+		int tableSizeMb = TranspositionTable.DEFAULT_SIZE_MB;
+		TranspositionTable.ReplacementPolicy tablePolicy = TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED;
+		int searchThreads = 1;
+		boolean singleComponent = false;
+		OpeningBook openingBook = null;
+		PatternWeights patternWeights = PatternWeights.defaults();
+		int boardSize = Bitboard.SIZE;
+		for (int i = 0; i < args.length; i++)
+		{
+			switch (args[i])
+			{
+				case "--tt-size-mb":
+					tableSizeMb = Integer.parseInt(requireValue(args, ++i));
+					break;
+				case "--tt-policy":
+					tablePolicy = TranspositionTable.ReplacementPolicy.parse(requireValue(args, ++i));
+					break;
+				case "--threads":
+					searchThreads = Integer.parseInt(requireValue(args, ++i));
+					break;
+				case "--renderer":
+					singleComponent = parseRenderer(requireValue(args, ++i));
+					break;
+				case "--book":
+					openingBook = OpeningBook.open(Paths.get(requireValue(args, ++i)));
+					break;
+				case "--weights":
+					patternWeights = PatternWeights.load(Paths.get(requireValue(args, ++i)));
+					break;
+				case "--size":
+					boardSize = Integer.parseInt(requireValue(args, ++i));
+					if (boardSize < Board.MIN_SIZE || boardSize > Board.MAX_SIZE || boardSize % 2 != 0)
+					{
+						throw new IllegalArgumentException("Board size must be even, "
+								                                   + Board.MIN_SIZE + " - " + Board.MAX_SIZE + ": " + boardSize);
+					}
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		/** Create windows */
+		JFrame p1_window = new JFrame();
+		JFrame p2_window = new JFrame();
+
+		/** Create panels */
+		/* Game board - border layout */
+		JPanel p1_panel_gameBoard = new JPanel(new BorderLayout(5, 5));
+		JPanel p2_panel_gameBoard = new JPanel(new BorderLayout(5, 5));
+		/* Info panel - border layout */
+		JPanel p1_panel_info = new JPanel(new BorderLayout(5, 5));
+		JPanel p2_panel_info = new JPanel(new BorderLayout(5, 5));
+
+		/** Add panels */
+		/* Window <- Game board */
+		p1_window.add(p1_panel_gameBoard);
+		p2_window.add(p2_panel_gameBoard);
+		/* Game board <- Info panel */
+		p1_panel_gameBoard.add(p1_panel_info, BorderLayout.NORTH);
+		p2_panel_gameBoard.add(p2_panel_info, BorderLayout.NORTH);
+
+		/** Create labels */
+		/* Displays the player turn */
+		JLabel p1_label_player = new JLabel();
+		JLabel p2_label_player = new JLabel();
+		/* Displays the score */
+		JLabel p1_label_score = new JLabel();
+		JLabel p2_label_score = new JLabel();
+
+		/** Add labels */
+		p1_panel_info.add(p1_label_player, BorderLayout.WEST);
+		p2_panel_info.add(p2_label_player, BorderLayout.WEST);
+		p1_panel_info.add(p1_label_score, BorderLayout.EAST);
+		p2_panel_info.add(p2_label_score, BorderLayout.EAST);
+
+		/** Label set font */
+		p1_label_player.setFont(new Font("Segoe UI Semibold", Font.BOLD, 30));
+		p2_label_player.setFont(new Font("Segoe UI Semibold", Font.BOLD, 30));
+		p1_label_score.setFont(new Font("Segoe UI Semibold", Font.BOLD, 30));
+		p2_label_score.setFont(new Font("Segoe UI Semibold", Font.BOLD, 30));
+
+		/** Create buttons */
+		JButton p1_button_ai = new JButton("Make Move (Greedy Search)");
+		JButton p2_button_ai = new JButton("Make Move (Greedy Search)");
+		JButton p1_button_search = new JButton("Make Move (Alpha-Beta Search)");
+		JButton p2_button_search = new JButton("Make Move (Alpha-Beta Search)");
+		JButton p1_button_undo = new JButton("Undo");
+		JButton p2_button_undo = new JButton("Undo");
+		JButton p1_button_redo = new JButton("Redo");
+		JButton p2_button_redo = new JButton("Redo");
+
+		/** Add buttons */
+		/* Button panel - grid layout (2x2) */
+		JPanel p1_panel_buttons = new JPanel(new GridLayout(2, 2, 5, 5));
+		JPanel p2_panel_buttons = new JPanel(new GridLayout(2, 2, 5, 5));
+		p1_panel_buttons.add(p1_button_ai);
+		p2_panel_buttons.add(p2_button_ai);
+		p1_panel_buttons.add(p1_button_search);
+		p2_panel_buttons.add(p2_button_search);
+		p1_panel_buttons.add(p1_button_undo);
+		p2_panel_buttons.add(p2_button_undo);
+		p1_panel_buttons.add(p1_button_redo);
+		p2_panel_buttons.add(p2_button_redo);
+		p1_panel_gameBoard.add(p1_panel_buttons, BorderLayout.SOUTH);
+		p2_panel_gameBoard.add(p2_panel_buttons, BorderLayout.SOUTH);
+
+		/** Button set font */
+		p1_button_ai.setFont(new Font("Segeo UI Semibold", Font.BOLD, 20));
+		p2_button_ai.setFont(new Font("Segeo UI Semibold", Font.BOLD, 20));
+		p1_button_search.setFont(new Font("Segeo UI Semibold", Font.BOLD, 20));
+		p2_button_search.setFont(new Font("Segeo UI Semibold", Font.BOLD, 20));
+		p1_button_undo.setFont(new Font("Segeo UI Semibold", Font.BOLD, 20));
+		p2_button_undo.setFont(new Font("Segeo UI Semibold", Font.BOLD, 20));
+		p1_button_redo.setFont(new Font("Segeo UI Semibold", Font.BOLD, 20));
+		p2_button_redo.setFont(new Font("Segeo UI Semibold", Font.BOLD, 20));
+
+		/** Add counters */
+		Game mainGame = new Game(new TranspositionTable(tableSizeMb, tablePolicy), searchThreads, openingBook, patternWeights,
+				boardSize);
+		BoardView p1_view;
+		BoardView p2_view;
+		if (singleComponent)
+		{
+			/* Game board <- Board component, draws every square itself */
+			BoardComponent p1_board = new BoardComponent(1, false, mainGame, boardSize);
+			BoardComponent p2_board = new BoardComponent(2, true, mainGame, boardSize);
+			p1_panel_gameBoard.add(p1_board, BorderLayout.CENTER);
+			p2_panel_gameBoard.add(p2_board, BorderLayout.CENTER);
+			p1_view = p1_board;
+			p2_view = p2_board;
+		} else
+		{
+			/* Game grid - grid layout (size x size) */
+			JPanel p1_panel_gameGrid = new JPanel(new GridLayout(boardSize, boardSize));
+			JPanel p2_panel_gameGrid = new JPanel(new GridLayout(boardSize, boardSize));
+			/* Game board <- Game grid */
+			p1_panel_gameBoard.add(p1_panel_gameGrid, BorderLayout.CENTER);
+			p2_panel_gameBoard.add(p2_panel_gameGrid, BorderLayout.CENTER);
+
+			int last = boardSize - 1;
+			int cellSize = Disc.cellSize(boardSize);
+			Disc[][] p1_discs = new Disc[boardSize][boardSize];
+			Disc[][] p2_discs = new Disc[boardSize][boardSize];
+			for (int column = 0; column < boardSize; column++)
+			{
+				for (int row = 0; row < boardSize; row++)
+				{
+					/** Creates the disc */
+					p1_discs[row][column] = new Disc(row, column, 1, mainGame, cellSize); // Reversed so that first term is x-axis
+					p2_discs[last - row][last - column] = new Disc(last - row, last - column, 2, mainGame, cellSize);
+
+					/** Adds the counters to the game grid */
+					p1_panel_gameGrid.add(p1_discs[row][column]);
+					p2_panel_gameGrid.add(p2_discs[last - row][last - column]);
+				}
+			}
+			p1_view = new DiscGrid(p1_discs);
+			p2_view = new DiscGrid(p2_discs);
+		}
+
+		/** Sets up initial board */
+		mainGame.initialise(p1_view, p1_label_player, p1_label_score, p1_button_ai, p1_button_search,
+				p2_view, p2_label_player, p2_label_score, p2_button_ai, p2_button_search);
+		mainGame.addUndoButtons(p1_button_undo, p1_button_redo);
+		mainGame.addUndoButtons(p2_button_undo, p2_button_redo);
+
+		/** Sets the frame and makes visible */
+		p1_window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);   // Closes program on exit
+		p2_window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		p1_window.setTitle("Reversi - Player One");                 // Sets title
+		p2_window.setTitle("Reversi - Player Two");
+		p1_window.setResizable(false);                              // Doesn't allow the window to be resizable
+		p2_window.setResizable(false);
+		p1_window.pack();                                           // Packs the window
+		p2_window.pack();
+		p2_window.setLocation(p1_window.getWidth() + 5,
+				0);      // Moves the player 2 window to the right of the player 1 window
+		p1_window.setVisible(true);                                 // Sets the frame to be visible
+		p2_window.setVisible(true);
+
+		/** Runs main game loop */
+		mainGame.resetGame();
+		mainGame.gameLoop();
+
+		/** Report how well the transposition table was sized */
+		System.out.println(mainGame.getTranspositionTable());
+
+		System.out.println("My Old Friend");
+	}
+
+	/**
+	 * Reads which board renderer to use
+	 *
+	 * @param name "buttons" or "single"
+	 *
+	 * @return True - one component draws the board | False - one button per square
+	 */
+	private static boolean parseRenderer(String name)
+	{
+		switch (name)
+		{
+			case "buttons":
+				return false;
+			case "single":
+				return true;
+			default:
+				throw new IllegalArgumentException("Unknown renderer: " + name);
+		}
+	}
+
+	/**
+	 * Gets the value following a command-line option
+	 *
+	 * @param args  The command-line arguments
+	 * @param index The position of the value
+	 *
+	 * @return The value
+	 */
+	private static String requireValue(String[] args, int index)
+	{
+		if (index >= args.length)
+		{
+			throw new IllegalArgumentException("Missing value for option: " + args[index - 1]);
+		}
+		return args[index];
+	}
+}
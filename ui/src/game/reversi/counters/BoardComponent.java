@@ -0,0 +1,219 @@
+package game.reversi.counters;
+
+import game.reversi.Game;
+import game.reversi.engine.Bitboard;
+import game.reversi.engine.Board;
+import game.reversi.engine.BoardState;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws the whole board in one component, in place of a Disc button per square
+ * <p>
+ * Each square is stamped from a pre-drawn image of an empty, white or black
+ * square, only the squares which changed are repainted and clicks are mapped
+ * to squares from their coordinates
+ */
+public class BoardComponent extends JComponent implements BoardView
+{
+	/**
+	 * Which board this is and whether it is drawn upside down for player two
+	 */
+	private final int boardNum;
+	private final boolean rotated;
+
+	/**
+	 * Game object
+	 */
+	private final Game game;
+
+	/**
+	 * The number of rows and columns, and the size of one square in pixels, the same as a Disc
+	 */
+	private final int size;
+	private final int cellSize;
+
+	/**
+	 * The state of each square being shown, as row * size + column. Written by
+	 * the game before it asks for a repaint, which the paint then follows
+	 */
+	private final byte[] cells;
+
+	/**
+	 * Pre-drawn squares, indexed by BoardState cell constant
+	 */
+	private final BufferedImage[] sprites = new BufferedImage[3];
+
+	/**
+	 * Constructor
+	 *
+	 * @param boardNum Which board this is
+	 * @param rotated  If the board is turned round, as player two sees it
+	 * @param game     Main game object
+	 */
+	public BoardComponent(int boardNum, boolean rotated, Game game)
+	{
+		this(boardNum, rotated, game, Bitboard.SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param boardNum Which board this is
+	 * @param rotated  If the board is turned round, as player two sees it
+	 * @param game     Main game object
+	 * @param size     The number of rows and columns
+	 */
+	public BoardComponent(int boardNum, boolean rotated, Game game, int size)
+	{
+		this.boardNum = boardNum;
+		this.rotated = rotated;
+		this.game = game;
+		this.size = size;
+		this.cellSize = Disc.cellSize(size);
+		this.cells = new byte[size * size];
+
+		sprites[BoardState.EMPTY] = drawSprite(null, 0, null);
+		sprites[BoardState.WHITE] = drawSprite(Disc.WHITE_COLOR, Disc.DISC_BORDER_WIDTH, Disc.WHITE_BORDER_COLOR);
+		sprites[BoardState.BLACK] = drawSprite(Disc.BLACK_COLOR, Disc.DISC_BORDER_WIDTH, Disc.BLACK_BORDER_COLOR);
+
+		Dimension dimension = new Dimension(cellSize * size, cellSize * size);
+		setMinimumSize(dimension);
+		setPreferredSize(dimension);
+		setMaximumSize(dimension);
+		setOpaque(true);
+
+		addMouseListener(new MousePressHandler());
+	}
+
+	@Override
+	public void showChanges(Board board, int[] changed, int count)
+	{
+		/** Only the changed squares are marked dirty, Swing merges them into one paint */
+		for (int i = 0; i < count; i++)
+		{
+			int row = changed[i] / size;
+			int col = changed[i] % size;
+			cells[changed[i]] = board.get(row, col);
+
+			repaint(screenX(row) * cellSize, screenY(col) * cellSize, cellSize, cellSize);
+		}
+	}
+
+	/**
+	 * Draws the squares inside the area being repainted
+	 *
+	 * @param g The graphics object that the systems gives you to draw to
+	 */
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		Rectangle clip = g.getClipBounds();
+		if (clip == null)
+		{
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+
+		int firstX = Math.max(0, clip.x / cellSize);
+		int lastX = Math.min(size - 1, (clip.x + clip.width - 1) / cellSize);
+		int firstY = Math.max(0, clip.y / cellSize);
+		int lastY = Math.min(size - 1, (clip.y + clip.height - 1) / cellSize);
+
+		for (int y = firstY; y <= lastY; y++)
+		{
+			for (int x = firstX; x <= lastX; x++)
+			{
+				/** The first index of the board is drawn across, like the Disc grid */
+				int row = screenX(x);
+				int col = screenY(y);
+				g.drawImage(sprites[cells[row * size + col]], x * cellSize, y * cellSize, null);
+			}
+		}
+	}
+
+	/**
+	 * Pre-draws one square the same way CircleButton paints itself
+	 *
+	 * @param circleColor       Colour of the main part of the circle, null for none
+	 * @param circleBorderWidth Width of the circle border, in pixels
+	 * @param circleBorderColor Colour of the circle border, null for none
+	 *
+	 * @return The drawn square
+	 */
+	private BufferedImage drawSprite(Color circleColor, int circleBorderWidth, Color circleBorderColor)
+	{
+		BufferedImage sprite = new BufferedImage(cellSize, cellSize, BufferedImage.TYPE_INT_RGB);
+		Graphics g = sprite.getGraphics();
+
+		/** Square */
+		g.setColor(Disc.SQUARE_BORDER_COLOR);
+		g.fillRect(0, 0, cellSize, cellSize);
+		g.setColor(Disc.SQUARE_COLOR);
+		g.fillRect(Disc.SQUARE_BORDER_WIDTH, Disc.SQUARE_BORDER_WIDTH,
+				cellSize - Disc.SQUARE_BORDER_WIDTH * 2, cellSize - Disc.SQUARE_BORDER_WIDTH * 2);
+
+		/** Circle */
+		if (circleBorderColor != null)
+		{
+			g.setColor(circleBorderColor);
+			g.fillOval(0, 0, cellSize, cellSize);
+		}
+		if (circleColor != null)
+		{
+			g.setColor(circleColor);
+			g.fillOval(circleBorderWidth, circleBorderWidth,
+					cellSize - circleBorderWidth * 2, cellSize - circleBorderWidth * 2);
+		}
+
+		g.dispose();
+		return sprite;
+	}
+
+	/**
+	 * Gets the screen column of a row, or the row of a screen column
+	 * The first index of the board is drawn across, like the Disc grid
+	 */
+	private int screenX(int row)
+	{
+		return rotated ? size - 1 - row : row;
+	}
+
+	/**
+	 * Gets the screen row of a column, or the column of a screen row
+	 */
+	private int screenY(int col)
+	{
+		return rotated ? size - 1 - col : col;
+	}
+
+	/**
+	 * The mouse press handler
+	 */
+	private class MousePressHandler extends MouseAdapter
+	{
+		/**
+		 * Tells the game object which square was clicked
+		 *
+		 * @param e Mouse event
+		 */
+		@Override
+		public void mouseClicked(MouseEvent e)
+		{
+			int x = e.getX() / cellSize;
+			int y = e.getY() / cellSize;
+			if (x >= 0 && x < size && y >= 0 && y < size)
+			{
+				game.submitMove(screenX(x), screenY(y), boardNum);
+			}
+		}
+	}
+
+	/**
+	 * Added to get rid of warning, for serialisation
+	 */
+	private static final long serialVersionUID = 4780251934165204331L;
+}
@@ -0,0 +1,18 @@
+package game.reversi.counters;
+
+import game.reversi.engine.Board;
+
+/**
+ * Something which shows a board to a player
+ */
+public interface BoardView
+{
+	/**
+	 * Shows the squares of the board which changed
+	 *
+	 * @param board   The board to show
+	 * @param changed The squares which changed since the last call, as row * size + column
+	 * @param count   The number of squares in changed
+	 */
+	void showChanges(Board board, int[] changed, int count);
+}
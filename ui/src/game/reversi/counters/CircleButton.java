@@ -1,8 +1,11 @@
 package game.reversi.counters;
 
+import game.reversi.metrics.GameMetrics;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CircleButton extends JButton implements Runnable
 {
@@ -32,6 +35,16 @@ public class CircleButton extends JButton implements Runnable
 	 */
 	protected Color circleBorderColor;
 
+	/**
+	 * If a repaint is already queued, so changes before it runs share it
+	 */
+	private final AtomicBoolean repaintPending = new AtomicBoolean();
+
+	/**
+	 * When the queued redraw was queued, for its latency, 0 if not measured
+	 */
+	private volatile long repaintQueued;
+
 	/** ------------ */
 	/** Constructors */
 	/** ------------ */
@@ -148,10 +161,25 @@ public class CircleButton extends JButton implements Runnable
 
 	/**
 	 * Ask the even thread to redraw this button now
+	 * Does nothing if a redraw is already queued, and leaves it to the open RepaintBatch if there is one
 	 */
 	private void redrawSelf()
 	{
-		EventQueue.invokeLater(this);
+		if (!RepaintBatch.defer(this) && markRepaintPending())
+		{
+			repaintQueued = GameMetrics.queueTime();
+			EventQueue.invokeLater(this);
+		}
+	}
+
+	/**
+	 * Marks that a redraw has been queued
+	 *
+	 * @return True - the caller must queue it | False - one is already queued
+	 */
+	boolean markRepaintPending()
+	{
+		return repaintPending.compareAndSet(false, true);
 	}
 
 	/**
@@ -159,6 +187,9 @@ public class CircleButton extends JButton implements Runnable
 	 */
 	public void run()
 	{
+		GameMetrics.repaintRun(repaintQueued, 1);
+		repaintQueued = 0;
+		repaintPending.set(false);
 		repaint();
 	}
 
@@ -193,6 +224,28 @@ public class CircleButton extends JButton implements Runnable
 		redrawSelf();
 	}
 
+	/**
+	 * Set the whole square style AND ask it to redraw once
+	 */
+	public void setSquareStyle(Color newColor, int newBorderWidth, Color newBorderColor)
+	{
+		squareColor = newColor;
+		squareBorderWidth = newBorderWidth;
+		squareBorderColor = newBorderColor;
+		redrawSelf();
+	}
+
+	/**
+	 * Set the whole circle style AND ask it to redraw once
+	 */
+	public void setCircleStyle(Color newColor, int newBorderWidth, Color newBorderColor)
+	{
+		circleColor = newColor;
+		circleBorderWidth = newBorderWidth;
+		circleBorderColor = newBorderColor;
+		redrawSelf();
+	}
+
 	/**
 	 * Set the colour of the circle AND ask it to redraw now
 	 */
@@ -0,0 +1,201 @@
+package game.reversi.counters;
+
+import game.reversi.Game;
+import game.reversi.engine.BoardState;
+
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+public class Disc extends CircleButton
+{
+	/**
+	 * Square colours, shared with BoardComponent
+	 */
+	static final Color SQUARE_COLOR = new Color(223, 239, 255);
+	static final Color SQUARE_BORDER_COLOR = new Color(161, 175, 191);
+	static final int SQUARE_BORDER_WIDTH = 5;
+
+	/**
+	 * Disc colours, shared with BoardComponent
+	 */
+	static final Color WHITE_COLOR = new Color(238, 238, 238);
+	static final Color WHITE_BORDER_COLOR = new Color(204, 204, 204);
+	static final Color BLACK_COLOR = new Color(51, 51, 51);
+	static final Color BLACK_BORDER_COLOR = new Color(68, 68, 68);
+	static final int DISC_BORDER_WIDTH = 5;
+
+	/**
+	 * Squares are this big, unless the board would be wider than BOARD_PIXELS
+	 */
+	private static final int MAX_CELL_SIZE = 100;
+	private static final int BOARD_PIXELS = 800;
+
+	/**
+	 * Which current mode it is in, mirrored from the game's BoardState
+	 * 0 - nothing
+	 * 1 - white
+	 * 2 - black
+	 */
+	protected byte state;
+	/**
+	 * Co-ords of the disc
+	 */
+	public final int rowValue;
+	public final int colValue;
+	/**
+	 * Which board is the disc on
+	 */
+	public final int boardNum;
+	/**
+	 * Game object
+	 */
+	private final Game game;
+
+	/**
+	 * Constructor to set up object
+	 *
+	 * @param row      Disc's row position
+	 * @param col      Disc's col position
+	 * @param boardNum Which board the disc is on
+	 * @param game     Main game object
+	 */
+	public Disc(int row, int col, int boardNum, Game game)
+	{
+		this(row, col, boardNum, game, MAX_CELL_SIZE);
+	}
+
+	/**
+	 * Constructor to set up object
+	 *
+	 * @param row      Disc's row position
+	 * @param col      Disc's col position
+	 * @param boardNum Which board the disc is on
+	 * @param game     Main game object
+	 * @param cellSize Width and height of the disc, in pixels
+	 */
+	public Disc(int row, int col, int boardNum, Game game, int cellSize)
+	{
+		super(cellSize, cellSize,
+				SQUARE_COLOR, SQUARE_BORDER_WIDTH, SQUARE_BORDER_COLOR,
+				null, 0, null);
+		this.rowValue = row;
+		this.colValue = col;
+		this.boardNum = boardNum;
+		this.game = game;
+
+		setEmpty();
+		this.addActionListener(new ButtonPressHandler());
+	}
+
+	/**
+	 * Gets the size of a square so a board of any size fits on screen
+	 *
+	 * @param boardSize The number of rows and columns
+	 *
+	 * @return The width and height of a square, in pixels
+	 */
+	public static int cellSize(int boardSize)
+	{
+		return Math.min(MAX_CELL_SIZE, BOARD_PIXELS / boardSize);
+	}
+
+	/**
+	 * Gets the current state of the disc
+	 *
+	 * @return The current state, one of the BoardState cell constants
+	 */
+	public byte getState()
+	{
+		return state;
+	}
+
+	/**
+	 * Sets the state of the current disc
+	 *
+	 * @param newState The new state, one of the BoardState cell constants
+	 */
+	public void setState(byte newState)
+	{
+		if (newState == state)
+		{
+			return;
+		}
+
+		switch (newState)
+		{
+			case BoardState.EMPTY:
+				setEmpty();
+				break;
+			case BoardState.WHITE:
+				setWhite();
+				break;
+			case BoardState.BLACK:
+				setBlack();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown 'state': " + newState);
+		}
+		state = newState;
+	}
+
+	/**
+	 * Sets the current disc to empty
+	 */
+	private void setEmpty()
+	{
+		setCircleStyle(null, 0, null);
+	}
+
+	/**
+	 * Sets the current disc to white
+	 */
+	private void setWhite()
+	{
+		setCircleStyle(WHITE_COLOR, DISC_BORDER_WIDTH, WHITE_BORDER_COLOR);
+	}
+
+	/**
+	 * Sets the current disc to black
+	 */
+	private void setBlack()
+	{
+		setCircleStyle(BLACK_COLOR, DISC_BORDER_WIDTH, BLACK_BORDER_COLOR);
+	}
+
+	/**
+	 * Returns the disc's x value
+	 *
+	 * @return x value
+	 */
+	public int getRowValue()
+	{
+		return this.rowValue;
+	}
+
+	/**
+	 * Returns to disc's y value
+	 *
+	 * @return y value
+	 */
+	public int getColValue()
+	{
+		return this.colValue;
+	}
+
+	/**
+	 * The button press handeler
+	 */
+	private class ButtonPressHandler implements ActionListener
+	{
+		/**
+		 * Tells the game object which square was clicked
+		 *
+		 * @param e Action event
+		 */
+		public void actionPerformed(ActionEvent e)
+		{
+			game.submitMove(rowValue, colValue, boardNum);
+		}
+	}
+}
\ No newline at end of file
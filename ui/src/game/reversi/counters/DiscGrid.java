@@ -0,0 +1,44 @@
+package game.reversi.counters;
+
+import game.reversi.engine.Board;
+
+/**
+ * Shows a board on a grid of Disc buttons
+ */
+public class DiscGrid implements BoardView
+{
+	/**
+	 * The 2D array of counters
+	 */
+	private final Disc[][] discs;
+
+	/**
+	 * Constructor
+	 *
+	 * @param discs The 2D array of counters, indexed [row][column]
+	 */
+	public DiscGrid(Disc[][] discs)
+	{
+		this.discs = discs;
+	}
+
+	@Override
+	public void showChanges(Board board, int[] changed, int count)
+	{
+		/** Repaint the whole move in one pass */
+		RepaintBatch batch = RepaintBatch.begin();
+		try
+		{
+			int size = board.size();
+			for (int i = 0; i < count; i++)
+			{
+				int row = changed[i] / size;
+				int col = changed[i] % size;
+				discs[row][col].setState(board.get(row, col));
+			}
+		} finally
+		{
+			batch.commit();
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package game.reversi.counters;
+
+import game.reversi.metrics.GameMetrics;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the buttons changed during an update so they repaint together
+ * <p>
+ * Between begin() and commit() on a thread, any CircleButton changed on that
+ * thread is remembered instead of queueing its own repaint. commit() then
+ * queues a single task on the event thread which repaints all of them
+ */
+public class RepaintBatch implements Runnable
+{
+	/**
+	 * The open batch of each thread
+	 */
+	private static final ThreadLocal<RepaintBatch> current = new ThreadLocal<>();
+
+	/**
+	 * Buttons waiting to be repainted
+	 */
+	private final List<CircleButton> dirty = new ArrayList<>();
+
+	/**
+	 * How many begin() calls are still waiting for their commit()
+	 */
+	private int depth;
+
+	/**
+	 * When the batch was queued, for its latency, 0 if not measured
+	 */
+	private volatile long queued;
+
+	private RepaintBatch()
+	{
+	}
+
+	/**
+	 * Starts a batch on this thread, or joins the one already open
+	 *
+	 * @return The batch, which must be committed
+	 */
+	public static RepaintBatch begin()
+	{
+		RepaintBatch batch = current.get();
+		if (batch == null)
+		{
+			batch = new RepaintBatch();
+			current.set(batch);
+		}
+		batch.depth++;
+		return batch;
+	}
+
+	/**
+	 * Ends the batch, queueing one repaint of every changed button when the
+	 * outermost begin() is committed
+	 */
+	public void commit()
+	{
+		if (--depth > 0)
+		{
+			return;
+		}
+
+		current.remove();
+		if (!dirty.isEmpty())
+		{
+			queued = GameMetrics.queueTime();
+			EventQueue.invokeLater(this);
+		}
+	}
+
+	/**
+	 * Adds a button to this thread's open batch
+	 *
+	 * @param button The changed button
+	 *
+	 * @return True - the batch will repaint it | False - no batch is open
+	 */
+	static boolean defer(CircleButton button)
+	{
+		RepaintBatch batch = current.get();
+		if (batch == null)
+		{
+			return false;
+		}
+		if (button.markRepaintPending())
+		{
+			batch.dirty.add(button);
+		}
+		return true;
+	}
+
+	/**
+	 * Repaints every button in the batch, on the event thread
+	 */
+	public void run()
+	{
+		GameMetrics.repaintRun(queued, dirty.size());
+		for (CircleButton button : dirty)
+		{
+			button.run();
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package game.reversi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The AI choosing and making a move, the duration is the time it took
+ */
+@Name("game.reversi.AiMove")
+@Label("AI Move")
+@Category("Reversi")
+@Description("The AI choosing and making a move")
+public final class AiMoveEvent extends jdk.jfr.Event
+{
+	@Label("Kind")
+	@Description("greedy or search")
+	String kind;
+
+	@Label("Moved")
+	@Description("False if the AI had no move")
+	boolean moved;
+
+	@Label("Nodes")
+	@Description("Positions searched, 0 for greedy")
+	long nodes;
+
+	@Label("Depth")
+	@Description("Deepest completed search, 0 for greedy")
+	int depth;
+}
@@ -0,0 +1,19 @@
+package game.reversi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The AI checking if a side has a move
+ */
+@Name("game.reversi.CheckBoard")
+@Label("Check Board")
+@Category("Reversi")
+@Description("The AI checking if a side has a move")
+public final class CheckBoardEvent extends jdk.jfr.Event
+{
+	@Label("Has Moves")
+	boolean moves;
+}
@@ -0,0 +1,21 @@
+package game.reversi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A click on a square until the move it made is painted
+ */
+@Name("game.reversi.ClickToRender")
+@Label("Click To Render")
+@Category("Reversi")
+@Description("A click on a square until the move is painted")
+public final class ClickToRenderEvent extends jdk.jfr.Event
+{
+	@Label("Latency")
+	@Timespan
+	long latency;
+}
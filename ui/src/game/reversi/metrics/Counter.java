@@ -0,0 +1,47 @@
+package game.reversi.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count which any number of threads can add to without contending
+ */
+public final class Counter
+{
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * Created through Metrics.counter
+	 */
+	Counter()
+	{
+	}
+
+	/**
+	 * Adds to the count if metrics are on
+	 *
+	 * @param amount The amount to add
+	 */
+	public void add(long amount)
+	{
+		if (Metrics.ENABLED)
+		{
+			count.add(amount);
+		}
+	}
+
+	/**
+	 * Adds one to the count if metrics are on
+	 */
+	public void increment()
+	{
+		add(1);
+	}
+
+	/**
+	 * Gets the count so far
+	 */
+	public long get()
+	{
+		return count.sum();
+	}
+}
@@ -0,0 +1,25 @@
+package game.reversi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A repaint which waited in the event queue, committed when it runs
+ */
+@Name("game.reversi.EdtLatency")
+@Label("EDT Latency")
+@Category("Reversi")
+@Description("A repaint waiting in the event queue")
+public final class EdtLatencyEvent extends jdk.jfr.Event
+{
+	@Label("Latency")
+	@Timespan
+	long latency;
+
+	@Label("Buttons")
+	@Description("Buttons repainted by the task")
+	int buttons;
+}
@@ -0,0 +1,241 @@
+package game.reversi.metrics;
+
+import java.awt.*;
+
+/**
+ * What the game measures, recorded both in the metrics registry and as
+ * flight recorder events
+ * <p>
+ * The registry is updated when metrics are on (see Metrics) and an event is
+ * committed when a flight recording has it enabled, e.g. started with
+ * -XX:StartFlightRecording=filename=reversi.jfr. With both off a call costs a
+ * constant check, and the events, which never escape, are not allocated
+ * once the JIT has compiled the caller
+ * <p>
+ * Timed calls take an event the caller has begun and a start time from
+ * Metrics.now(), taken just before the work:
+ * <pre>
+ * AiMoveEvent event = new AiMoveEvent();
+ * event.begin();
+ * long start = Metrics.now();
+ * ...
+ * GameMetrics.greedyMove(event, start, moved);
+ * </pre>
+ */
+public final class GameMetrics
+{
+	/**
+	 * Moves and discs flipped
+	 */
+	private static final Counter MOVES = Metrics.counter("moves");
+	private static final Histogram FLIPS = Metrics.histogram("move.flips", "discs");
+
+	/**
+	 * The AI
+	 */
+	private static final Histogram GREEDY_TIME = Metrics.histogram("ai.greedy.time", "ns");
+	private static final Histogram SEARCH_TIME = Metrics.histogram("ai.search.time", "ns");
+	private static final Histogram SEARCH_NODES = Metrics.histogram("ai.search.nodes", "nodes");
+	private static final Histogram CHECK_BOARD_TIME = Metrics.histogram("ai.checkBoard.time", "ns");
+
+	/**
+	 * Showing the board
+	 */
+	private static final Histogram SYNC_TIME = Metrics.histogram("game.syncBoards.time", "ns");
+	private static final Histogram EDT_LATENCY = Metrics.histogram("edt.latency", "ns");
+	private static final Histogram CLICK_TO_RENDER = Metrics.histogram("click.toRender", "ns");
+
+	private GameMetrics()
+	{
+	}
+
+	/**
+	 * Records a move
+	 *
+	 * @param source "human", "greedy" or "search"
+	 * @param row    The row played
+	 * @param col    The column played
+	 * @param flips  The number of discs flipped
+	 */
+	public static void move(String source, int row, int col, int flips)
+	{
+		MOVES.increment();
+		FLIPS.record(flips);
+
+		MoveEvent event = new MoveEvent();
+		if (event.isEnabled())
+		{
+			event.source = source;
+			event.row = row;
+			event.col = col;
+			event.flips = flips;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Records a greedy AI move
+	 *
+	 * @param event The event begun before the move
+	 * @param start Metrics.now() before the move
+	 * @param moved If a move was made
+	 */
+	public static void greedyMove(AiMoveEvent event, long start, boolean moved)
+	{
+		GREEDY_TIME.recordSince(start);
+		aiMove(event, "greedy", moved, 0, 0);
+	}
+
+	/**
+	 * Records a searched AI move
+	 *
+	 * @param event The event begun before the move
+	 * @param start Metrics.now() before the move
+	 * @param moved If a move was made
+	 * @param nodes Positions searched, 0 for a book move
+	 * @param depth Deepest completed search, 0 for a book move
+	 */
+	public static void searchMove(AiMoveEvent event, long start, boolean moved, long nodes, int depth)
+	{
+		SEARCH_TIME.recordSince(start);
+		SEARCH_NODES.record(nodes);
+		aiMove(event, "search", moved, nodes, depth);
+	}
+
+	/**
+	 * Commits an AI move event if it is wanted
+	 */
+	private static void aiMove(AiMoveEvent event, String kind, boolean moved, long nodes, int depth)
+	{
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.kind = kind;
+			event.moved = moved;
+			event.nodes = nodes;
+			event.depth = depth;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Records the AI checking for a move
+	 *
+	 * @param event The event begun before the check
+	 * @param start Metrics.now() before the check
+	 * @param moves If there was a move
+	 */
+	public static void checkBoard(CheckBoardEvent event, long start, boolean moves)
+	{
+		CHECK_BOARD_TIME.recordSince(start);
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.moves = moves;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Records the board being pushed to the views
+	 *
+	 * @param event   The event begun before the sync
+	 * @param start   Metrics.now() before the sync
+	 * @param changed The number of squares which changed
+	 */
+	public static void syncBoards(SyncBoardsEvent event, long start, int changed)
+	{
+		SYNC_TIME.recordSince(start);
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.changed = changed;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Gets the time a repaint task is queued at
+	 *
+	 * @return System.nanoTime(), or 0 when its latency is not wanted
+	 */
+	public static long queueTime()
+	{
+		return Metrics.ENABLED || new EdtLatencyEvent().isEnabled() ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records how long a repaint task waited, called as it starts on the event thread
+	 *
+	 * @param queued  queueTime() when it was queued
+	 * @param buttons The number of buttons it repaints
+	 */
+	public static void repaintRun(long queued, int buttons)
+	{
+		if (queued == 0)
+		{
+			return;
+		}
+
+		long latency = System.nanoTime() - queued;
+		EDT_LATENCY.record(latency);
+
+		EdtLatencyEvent event = new EdtLatencyEvent();
+		if (event.isEnabled())
+		{
+			event.latency = latency;
+			event.buttons = buttons;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Gets the time a click happened at
+	 *
+	 * @return System.nanoTime(), or 0 when click to render latency is not wanted
+	 */
+	public static long clickTime()
+	{
+		return Metrics.ENABLED || new ClickToRenderEvent().isEnabled() ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records the latency of a click once the move it made has been painted.
+	 * Call after the changed squares have been queued for repainting: the
+	 * repaints run first, and they queue the paint, so going round the event
+	 * queue twice lands after it
+	 *
+	 * @param clicked clickTime() when the square was clicked
+	 */
+	public static void afterRender(final long clicked)
+	{
+		if (clicked == 0)
+		{
+			return;
+		}
+
+		EventQueue.invokeLater(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				EventQueue.invokeLater(new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						long latency = System.nanoTime() - clicked;
+						CLICK_TO_RENDER.record(latency);
+
+						ClickToRenderEvent event = new ClickToRenderEvent();
+						if (event.isEnabled())
+						{
+							event.latency = latency;
+							event.commit();
+						}
+					}
+				});
+			}
+		});
+	}
+}
@@ -0,0 +1,107 @@
+package game.reversi.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of a value, such as a duration or a count per move
+ * <p>
+ * Values are counted in power of two buckets, so recording is a few atomic
+ * adds with no allocation, and percentiles are given to within a factor of two
+ */
+public final class Histogram
+{
+	/**
+	 * Bucket i counts values from 2^(i-1) to 2^i - 1, bucket 0 counts 0 and below
+	 */
+	private static final int BUCKETS = 64;
+
+	/**
+	 * The unit of the values, for printing
+	 */
+	private final String unit;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+	/**
+	 * Created through Metrics.histogram
+	 */
+	Histogram(String unit)
+	{
+		this.unit = unit;
+	}
+
+	/**
+	 * Records a value if metrics are on
+	 *
+	 * @param value The value
+	 */
+	public void record(long value)
+	{
+		if (Metrics.ENABLED)
+		{
+			buckets.incrementAndGet(value <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(value));
+			count.increment();
+			total.add(value);
+			max.accumulate(value);
+		}
+	}
+
+	/**
+	 * Records the time since a start taken from Metrics.now()
+	 *
+	 * @param start The start time
+	 */
+	public void recordSince(long start)
+	{
+		if (Metrics.ENABLED)
+		{
+			record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Gets the number of values recorded
+	 */
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+	/**
+	 * Gets the upper bound of the bucket holding a percentile
+	 *
+	 * @param percent The percentile, 0 - 100
+	 *
+	 * @return A value which that percent of values are at or below, or 0 if nothing was recorded
+	 */
+	public long percentile(double percent)
+	{
+		long counted = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			counted += buckets.get(bucket);
+			if (counted > 0 && counted >= getCount() * percent / 100)
+			{
+				return bucket == 0 ? 0 : Math.min((1L << bucket) - 1, max.get());
+			}
+		}
+		return max.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		long values = getCount();
+		if (values == 0)
+		{
+			return "no values";
+		}
+		return String.format("count %,d | mean %,.1f | p50 <= %,d | p99 <= %,d | max %,d %s",
+				values, (double) total.sum() / values, percentile(50), percentile(99), max.get(), unit);
+	}
+}
@@ -0,0 +1,151 @@
+package game.reversi.metrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Registry of named counters and histograms
+ * <p>
+ * Switched on with -Dreversi.metrics=true. The switch is a constant, so when
+ * it is off every guarded update compiles away. With
+ * -Dreversi.metrics.file=[file] as well, everything is written to the file
+ * when the JVM exits
+ */
+public final class Metrics
+{
+	/**
+	 * If metrics are recorded, fixed when the class loads
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("reversi.metrics");
+
+	/**
+	 * Everything registered, by name
+	 */
+	private static final Map<String, Counter> counters = new TreeMap<>();
+	private static final Map<String, Histogram> histograms = new TreeMap<>();
+
+	static
+	{
+		final String file = System.getProperty("reversi.metrics.file");
+		if (ENABLED && file != null)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						dump(Paths.get(file));
+					} catch (IOException e)
+					{
+						e.printStackTrace();
+					}
+				}
+			}, "metrics-dump"));
+		}
+	}
+
+	private Metrics()
+	{
+	}
+
+	/**
+	 * Gets a counter, registering it the first time
+	 *
+	 * @param name The name it is dumped under
+	 *
+	 * @return The counter
+	 */
+	public static synchronized Counter counter(String name)
+	{
+		Counter counter = counters.get(name);
+		if (counter == null)
+		{
+			counter = new Counter();
+			counters.put(name, counter);
+		}
+		return counter;
+	}
+
+	/**
+	 * Gets a histogram, registering it the first time
+	 *
+	 * @param name The name it is dumped under
+	 * @param unit The unit of the values, for the dump
+	 *
+	 * @return The histogram
+	 */
+	public static synchronized Histogram histogram(String name, String unit)
+	{
+		Histogram histogram = histograms.get(name);
+		if (histogram == null)
+		{
+			histogram = new Histogram(unit);
+			histograms.put(name, histogram);
+		}
+		return histogram;
+	}
+
+	/**
+	 * Gets the time to measure from, only read when metrics are on
+	 *
+	 * @return System.nanoTime(), or 0 when metrics are off
+	 */
+	public static long now()
+	{
+		return ENABLED ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Writes every counter and histogram to a file
+	 *
+	 * @param file The file
+	 */
+	public static void dump(Path file) throws IOException
+	{
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8)))
+		{
+			dump(out);
+			if (out.checkError())
+			{
+				throw new IOException("Writing metrics failed: " + file);
+			}
+		}
+	}
+
+	/**
+	 * Writes every counter and histogram, one per line
+	 *
+	 * @param out Where to write
+	 */
+	public static void dump(PrintStream out)
+	{
+		dump(new PrintWriter(out));
+	}
+
+	/**
+	 * Writes every counter and histogram, one per line
+	 *
+	 * @param out Where to write
+	 */
+	private static synchronized void dump(PrintWriter out)
+	{
+		for (Map.Entry<String, Counter> counter : counters.entrySet())
+		{
+			out.printf("%-24s %,d%n", counter.getKey(), counter.getValue().get());
+		}
+		for (Map.Entry<String, Histogram> histogram : histograms.entrySet())
+		{
+			out.printf("%-24s %s%n", histogram.getKey(), histogram.getValue());
+		}
+		out.flush();
+	}
+}
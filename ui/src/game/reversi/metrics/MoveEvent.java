@@ -0,0 +1,30 @@
+package game.reversi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A disc placed, by a player or the AI
+ */
+@Name("game.reversi.Move")
+@Label("Move")
+@Category("Reversi")
+@Description("A disc placed, by a player or the AI")
+public final class MoveEvent extends jdk.jfr.Event
+{
+	@Label("Source")
+	@Description("human, greedy or search")
+	String source;
+
+	@Label("Row")
+	int row;
+
+	@Label("Column")
+	int col;
+
+	@Label("Flips")
+	@Description("Discs turned over by the move")
+	int flips;
+}
@@ -0,0 +1,20 @@
+package game.reversi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The board pushed to both players' views
+ */
+@Name("game.reversi.SyncBoards")
+@Label("Sync Boards")
+@Category("Reversi")
+@Description("The board pushed to both players' views")
+public final class SyncBoardsEvent extends jdk.jfr.Event
+{
+	@Label("Changed")
+	@Description("Squares which changed since the last sync")
+	int changed;
+}
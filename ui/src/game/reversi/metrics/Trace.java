@@ -0,0 +1,241 @@
+package game.reversi.metrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Debug trace kept in memory and printed on demand
+ * <p>
+ * Switched on with -Dreversi.trace=true. The switch is a constant, so when it
+ * is off a trace call is an empty method the JIT removes. Messages are a
+ * constant format and up to three numbers, so nothing is built until the
+ * trace is printed. Each message goes into the next slot of a fixed ring, the
+ * newest messages overwriting the oldest, claimed with one atomic increment
+ * and no lock. With -Dreversi.trace.file=[file] as well the ring is written to
+ * the file when the JVM exits
+ */
+public final class Trace
+{
+	/**
+	 * If messages are recorded, fixed when the class loads
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("reversi.trace");
+
+	/**
+	 * Number of messages kept, a power of two
+	 */
+	private static final int CAPACITY = ENABLED ? Integer.highestOneBit(Math.max(
+			Integer.getInteger("reversi.trace.size", 1 << 16), 2)) : 1;
+	private static final int MASK = CAPACITY - 1;
+
+	/**
+	 * Numbers kept per message
+	 */
+	private static final int ARGS = 3;
+
+	/**
+	 * The next message's sequence number
+	 */
+	private static final AtomicLong next = new AtomicLong();
+
+	/**
+	 * Sequence number plus one of the message in each slot, 0 while it is being written
+	 */
+	private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+
+	/**
+	 * The messages
+	 */
+	private static final String[] formats = new String[CAPACITY];
+	private static final long[] args = new long[CAPACITY * ARGS];
+	private static final long[] times = new long[CAPACITY];
+	private static final long[] threads = new long[CAPACITY];
+
+	/**
+	 * Times are printed from here
+	 */
+	private static final long startNanos = System.nanoTime();
+
+	static
+	{
+		final String file = System.getProperty("reversi.trace.file");
+		if (ENABLED && file != null)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						dump(Paths.get(file));
+					} catch (IOException e)
+					{
+						e.printStackTrace();
+					}
+				}
+			}, "trace-dump"));
+		}
+	}
+
+	private Trace()
+	{
+	}
+
+	/**
+	 * Records a message
+	 *
+	 * @param message The message, a constant
+	 */
+	public static void event(String message)
+	{
+		if (ENABLED)
+		{
+			record(message, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records a message with a number
+	 *
+	 * @param format The message, a constant String.format pattern such as "Book move %d"
+	 * @param a      The number
+	 */
+	public static void event(String format, long a)
+	{
+		if (ENABLED)
+		{
+			record(format, a, 0, 0);
+		}
+	}
+
+	/**
+	 * Records a message with two numbers
+	 *
+	 * @param format The message, a constant String.format pattern
+	 * @param a      The first number
+	 * @param b      The second number
+	 */
+	public static void event(String format, long a, long b)
+	{
+		if (ENABLED)
+		{
+			record(format, a, b, 0);
+		}
+	}
+
+	/**
+	 * Records a message with three numbers
+	 *
+	 * @param format The message, a constant String.format pattern
+	 * @param a      The first number
+	 * @param b      The second number
+	 * @param c      The third number
+	 */
+	public static void event(String format, long a, long b, long c)
+	{
+		if (ENABLED)
+		{
+			record(format, a, b, c);
+		}
+	}
+
+	/**
+	 * Claims the next slot and writes a message into it
+	 */
+	private static void record(String format, long a, long b, long c)
+	{
+		long sequence = next.getAndIncrement();
+		int slot = (int) (sequence & MASK);
+
+		/** Readers skip the slot until it is published again */
+		published.set(slot, 0);
+		VarHandle.releaseFence();
+
+		formats[slot] = format;
+		args[slot * ARGS] = a;
+		args[slot * ARGS + 1] = b;
+		args[slot * ARGS + 2] = c;
+		times[slot] = System.nanoTime();
+		threads[slot] = Thread.currentThread().getId();
+
+		published.set(slot, sequence + 1);
+	}
+
+	/**
+	 * Writes the messages in the ring to a file, oldest first
+	 *
+	 * @param file The file
+	 */
+	public static void dump(Path file) throws IOException
+	{
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8)))
+		{
+			dump(out);
+			if (out.checkError())
+			{
+				throw new IOException("Writing trace failed: " + file);
+			}
+		}
+	}
+
+	/**
+	 * Prints the messages in the ring, oldest first
+	 *
+	 * @param out Where to print
+	 */
+	public static void dump(PrintStream out)
+	{
+		dump(new PrintWriter(out));
+	}
+
+	/**
+	 * Prints the messages in the ring, oldest first. Messages can keep being
+	 * recorded meanwhile, any overwritten while being read are left out
+	 *
+	 * @param out Where to print
+	 */
+	private static void dump(PrintWriter out)
+	{
+		if (!ENABLED)
+		{
+			out.println("Tracing is off, run with -Dreversi.trace=true");
+			out.flush();
+			return;
+		}
+
+		long end = next.get();
+		for (long sequence = Math.max(0, end - CAPACITY); sequence < end; sequence++)
+		{
+			int slot = (int) (sequence & MASK);
+			if (published.get(slot) != sequence + 1)
+			{
+				continue;
+			}
+
+			String format = formats[slot];
+			long a = args[slot * ARGS];
+			long b = args[slot * ARGS + 1];
+			long c = args[slot * ARGS + 2];
+			long time = times[slot];
+			long thread = threads[slot];
+
+			/** Only use the copy if the slot was not reused while it was read */
+			VarHandle.acquireFence();
+			if (published.get(slot) != sequence + 1)
+			{
+				continue;
+			}
+			out.printf("%12.3fms [%d] %s%n", (time - startNanos) / 1e6, thread, String.format(format, a, b, c));
+		}
+		out.flush();
+	}
+}